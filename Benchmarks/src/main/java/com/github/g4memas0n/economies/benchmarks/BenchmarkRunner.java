@@ -0,0 +1,59 @@
+package com.github.g4memas0n.economies.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The main class of the benchmarks, that runs them like the JMH main class, but writes the results as JSON by default.
+ * <p>
+ *     Unless another result format or file is specified, the results are written to {@code benchmarks-<timestamp>.json}
+ *     in the working directory, so that they can be compared with the results of previous runs.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public final class BenchmarkRunner {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() { }
+
+    public static void main(@NotNull final String[] arguments) throws CommandLineOptionException, IOException,
+            RunnerException {
+        final CommandLineOptions options = new CommandLineOptions(arguments);
+
+        if (options.shouldHelp()) {
+            options.showHelp();
+            return;
+        }
+
+        final ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+
+        if (!options.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+
+        if (!options.getResult().hasValue()) {
+            builder.result("benchmarks-" + LocalDateTime.now().format(TIMESTAMP) + ".json");
+        }
+
+        final Runner runner = new Runner(builder.build());
+
+        if (options.shouldList()) {
+            runner.list();
+            return;
+        }
+
+        runner.run();
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.g4memas0n.economies.benchmarks;
+
+import com.github.g4memas0n.economies.economy.currency.CurrencyFormatter;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link CurrencyFormatter} with the previous formatting through a {@link DecimalFormat}.
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CurrencyFormatBenchmark {
+
+    @Param({"0.5", "1234.56", "-98765432.10"})
+    public String input;
+
+    private DecimalFormat format;
+    private CurrencyFormatter formatter;
+    private BigDecimal decimal;
+    private long cents;
+
+    @Setup
+    public void setup() {
+        this.format = new DecimalFormat("#,##0.00");
+        this.format.setDecimalFormatSymbols(DecimalFormatSymbols.getInstance(Locale.ENGLISH));
+        this.format.setRoundingMode(RoundingMode.FLOOR);
+        this.format.setMaximumFractionDigits(2);
+        this.formatter = new CurrencyFormatter(this.format, "$", false);
+        this.decimal = new BigDecimal(this.input);
+        this.cents = this.decimal.movePointRight(2).longValueExact();
+    }
+
+    @Benchmark
+    public void decimalFormat(@NotNull final Blackhole blackhole) {
+        // the previous implementation of BasicCurrency#format(BigDecimal), that formats and prepends the symbol
+        blackhole.consume("$" + this.format.format(this.decimal));
+    }
+
+    @Benchmark
+    public void formatterDecimal(@NotNull final Blackhole blackhole) {
+        blackhole.consume(this.formatter.format(this.decimal));
+    }
+
+    @Benchmark
+    public void formatterCents(@NotNull final Blackhole blackhole) {
+        blackhole.consume(this.formatter.format(this.cents));
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.g4memas0n.economies.benchmarks;
+
+import com.github.g4memas0n.economies.economy.currency.CurrencyParser;
+import com.github.g4memas0n.economies.economy.currency.ParseResult;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link CurrencyParser} with the previous parsing through a {@link DecimalFormat}.
+ * <p>
+ *     Run with {@code java -jar Benchmarks/target/benchmarks.jar CurrencyParseBenchmark} after building with the
+ *     {@code benchmarks} profile.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CurrencyParseBenchmark {
+
+    @Param({"1234.56", "1,234,567.89", "0.5", "abc"})
+    public String input;
+
+    private DecimalFormat format;
+    private CurrencyParser parser;
+
+    @Setup
+    public void setup() {
+        this.format = new DecimalFormat("#,##0.00");
+        this.format.setDecimalFormatSymbols(DecimalFormatSymbols.getInstance(Locale.ENGLISH));
+        this.format.setRoundingMode(RoundingMode.FLOOR);
+        this.format.setMaximumFractionDigits(2);
+        this.format.setParseBigDecimal(true);
+        this.parser = new CurrencyParser(this.format);
+    }
+
+    @Benchmark
+    public void decimalFormat(@NotNull final Blackhole blackhole) {
+        // the previous implementation of BasicCurrency#parse(String), including its exception for invalid input
+        try {
+            BigDecimal decimal = (BigDecimal) this.format.parse(this.input.toUpperCase(Locale.ROOT));
+
+            if (decimal.scale() > 2) {
+                decimal = decimal.setScale(2, RoundingMode.FLOOR);
+            }
+
+            blackhole.consume(decimal);
+        } catch (ParseException ex) {
+            blackhole.consume(new IllegalArgumentException("number cannot be parsed", ex));
+        }
+    }
+
+    @Benchmark
+    public void currencyParser(@NotNull final Blackhole blackhole) {
+        final ParseResult result = this.parser.parse(this.input);
+
+        blackhole.consume(result.isSuccess() ? result.getCents() : result.getError());
+    }
+}
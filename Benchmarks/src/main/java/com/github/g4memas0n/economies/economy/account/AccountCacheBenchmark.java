@@ -0,0 +1,89 @@
+package com.github.g4memas0n.economies.economy.account;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookups of the {@link AccountCache} while multiple threads access it at once.
+ * <p>
+ *     Lives in the package of the cache, as the cache is not visible outside of it. The keys are drawn from twice the
+ *     size of the cache, so that the lookups include misses and the writers cause evictions.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AccountCacheBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private AccountCache cache;
+    private UUID[] keys;
+    private Account account;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.cache = new AccountCache(this.size, 30, TimeUnit.MINUTES);
+        this.keys = new UUID[this.size * 2];
+        // the cache never calls the accounts, so a proxy without behaviour is sufficient
+        this.account = (Account) Proxy.newProxyInstance(Account.class.getClassLoader(), new Class<?>[]{Account.class},
+                (proxy, method, arguments) -> null);
+
+        for (int index = 0; index < this.keys.length; index++) {
+            this.keys[index] = UUID.randomUUID();
+
+            if (index < this.size) {
+                this.cache.putIfAbsent(this.keys[index], this.account);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Account contendedGet() {
+        return this.cache.get(next());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public Account mixedGet() {
+        return this.cache.get(next());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public @NotNull Account mixedPut() {
+        return this.cache.putIfAbsent(next(), this.account);
+    }
+
+    private @NotNull UUID next() {
+        return this.keys[ThreadLocalRandom.current().nextInt(this.keys.length)];
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.g4memas0n.economies.storage.database;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.storage.AccountStorage;
+import com.github.g4memas0n.economies.storage.StorageException;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the deposit, withdraw and transfer path of the {@link DatabaseAccount} on an embedded database.
+ * <p>
+ *     The plugin is loaded on a mocked server to provide its settings. Its own storage can not connect to a database
+ *     server while benchmarking, so it disables itself, and the accounts are created on an {@link EmbeddedStorage}.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseAccountBenchmark {
+
+    private static final BigDecimal BALANCE = new BigDecimal("1000000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+    private static final int ACCOUNTS = 1000;
+
+    private EmbeddedStorage storage;
+    private AccountStorage[] accounts;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, StorageException {
+        MockBukkit.mock();
+
+        final Economies plugin = MockBukkit.load(Economies.class);
+
+        this.storage = new EmbeddedStorage(plugin, 10);
+        this.storage.initialize();
+        // creates the stripes of the global account, which may become negative as all changes allow it
+        this.storage.getGlobal();
+        this.accounts = new AccountStorage[ACCOUNTS];
+
+        for (int index = 0; index < ACCOUNTS; index++) {
+            final UUID uniqueId = UUID.randomUUID();
+
+            this.storage.createAccount(uniqueId, "Player" + index);
+            this.accounts[index] = this.storage.getAccount(uniqueId);
+            this.accounts[index].setBalance(BALANCE);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        this.storage.shutdown();
+
+        MockBukkit.unmock();
+    }
+
+    @Benchmark
+    public void deposit() throws StorageException {
+        next().depositBalance(AMOUNT, true);
+    }
+
+    @Benchmark
+    public void withdraw() throws StorageException {
+        next().withdrawBalance(AMOUNT, true);
+    }
+
+    @Benchmark
+    public void transfer() throws StorageException {
+        final int sender = ThreadLocalRandom.current().nextInt(ACCOUNTS);
+        final int receiver = (sender + 1 + ThreadLocalRandom.current().nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+
+        this.accounts[sender].transferBalance(this.accounts[receiver], AMOUNT, true);
+    }
+
+    private @NotNull AccountStorage next() {
+        return this.accounts[ThreadLocalRandom.current().nextInt(ACCOUNTS)];
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.g4memas0n.economies.storage.database;
+
+import com.github.g4memas0n.economies.Economies;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.jetbrains.annotations.NotNull;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * The database storage on an embedded in-memory H2 database, that runs in the MySQL compatibility mode.
+ * <p>
+ *     Uses the MySQL queries of the plugin, while the tables are created by H2 batches of the current schema version,
+ *     as H2 does not support all statements of the MySQL migrations.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public class EmbeddedStorage extends DatabaseStorage {
+
+    private static final String URL = "jdbc:h2:mem:economies;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private final JdbcConnectionPool pool;
+
+    public EmbeddedStorage(@NotNull final Economies plugin, final int connections) {
+        super(plugin, "resources/queries/queries");
+        this.pool = JdbcConnectionPool.create(URL, "economies", "");
+        this.pool.setMaxConnections(connections);
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+
+        this.pool.dispose();
+    }
+
+    @Override
+    public @NotNull Connection fetch() throws SQLException {
+        final long start = this.plugin.getMetrics().start();
+        final Connection connection = this.pool.getConnection();
+
+        // timed like the pooled connections of the plugin, so that the benchmarks report the same metrics
+        this.plugin.getMetrics().stop("database.connection.acquire", start);
+
+        if (this.statements != null) {
+            this.statements.acquire(connection);
+        }
+
+        return connection;
+    }
+
+    @Override
+    protected void stream(@NotNull final PreparedStatement statement) {
+        // H2 rejects negative fetch sizes, and the tables of the benchmarks are held in memory anyway
+    }
+
+    @Override
+    protected @NotNull String batch(@NotNull final String name) {
+        return "resources/batches/h2/" + name;
+    }
+}
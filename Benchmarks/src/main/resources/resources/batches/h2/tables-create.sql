@@ -0,0 +1,61 @@
+#
+# The tables of the current schema version for the H2 MySQL compatibility mode, including all migrations.
+#
+
+CREATE TABLE IF NOT EXISTS accounts (
+    id INT AUTO_INCREMENT,
+    uuid_most BIGINT NOT NULL,
+    uuid_least BIGINT NOT NULL,
+    identifier VARCHAR(16) NOT NULL,
+    balance DECIMAL(20,2),
+    version BIGINT NOT NULL DEFAULT 0,
+
+    CONSTRAINT accounts_uuid UNIQUE (uuid_most, uuid_least),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS accounts_identifier ON accounts (identifier);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id BIGINT AUTO_INCREMENT,
+    sender INT,
+    receiver INT,
+    timestamp TIMESTAMP NOT NULL,
+    amount DECIMAL(20,2) NOT NULL CHECK (amount > 0),
+
+    PRIMARY KEY (id),
+    FOREIGN KEY (sender) REFERENCES accounts(id),
+    FOREIGN KEY (receiver) REFERENCES accounts(id)
+);
+
+CREATE INDEX IF NOT EXISTS sender_history ON transactions (sender, timestamp, id);
+
+CREATE INDEX IF NOT EXISTS receiver_history ON transactions (receiver, timestamp, id);
+
+CREATE TABLE IF NOT EXISTS transactions_pending (
+    id BIGINT AUTO_INCREMENT,
+    sender INT,
+    receiver INT,
+    timestamp TIMESTAMP NOT NULL,
+    amount DECIMAL(20,2) NOT NULL CHECK (amount > 0),
+
+    PRIMARY KEY (id),
+    FOREIGN KEY (sender) REFERENCES accounts(id),
+    FOREIGN KEY (receiver) REFERENCES accounts(id)
+);
+
+CREATE TABLE IF NOT EXISTS stripes (
+    stripe SMALLINT NOT NULL,
+    balance DECIMAL(20,2) NOT NULL,
+
+    PRIMARY KEY (stripe)
+);
+
+CREATE TABLE IF NOT EXISTS versions (
+    plugin_name VARCHAR(16) NOT NULL,
+    version_major TINYINT NOT NULL,
+    version_minor TINYINT NOT NULL,
+    modifications BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (plugin_name)
+);
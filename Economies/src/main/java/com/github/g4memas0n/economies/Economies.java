@@ -1,13 +1,25 @@
 package com.github.g4memas0n.economies;
 
+import com.github.g4memas0n.economies.command.EconomiesCommand;
 import com.github.g4memas0n.economies.config.Settings;
+import com.github.g4memas0n.economies.economy.EconomyExecutor;
+import com.github.g4memas0n.economies.economy.MainThreadExecutor;
 import com.github.g4memas0n.economies.economy.account.AccountManager;
 import com.github.g4memas0n.economies.economy.currency.BasicCurrency;
+import com.github.g4memas0n.economies.listener.PlayerListener;
+import com.github.g4memas0n.economies.metrics.MetricsRegistry;
+import com.github.g4memas0n.economies.storage.StorageException;
 import com.github.g4memas0n.economies.storage.StorageManager;
+import com.github.g4memas0n.economies.storage.cache.CachedStorage;
+import com.github.g4memas0n.economies.storage.database.DatabaseStorage;
+import com.github.g4memas0n.economies.storage.database.SQLiteStorage;
+import com.github.g4memas0n.economies.storage.metrics.MeteredStorage;
 import com.google.common.base.Preconditions;
+import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import java.sql.SQLException;
 import java.util.logging.Level;
 
 /**
@@ -22,6 +34,9 @@ public final class Economies extends JavaPlugin {
 
     private AccountManager accounts;
     private BasicCurrency currency;
+    private EconomyExecutor executor;
+    private MainThreadExecutor mainThread;
+    private MetricsRegistry metrics;
 
     private StorageManager storage;
     private Settings settings;
@@ -36,6 +51,26 @@ public final class Economies extends JavaPlugin {
         return this.currency;
     }
 
+    public @NotNull EconomyExecutor getExecutor() {
+        return this.executor;
+    }
+
+    public @NotNull MainThreadExecutor getMainThreadExecutor() {
+        return this.mainThread;
+    }
+
+    /**
+     * Returns the metrics registry, which can be read by other plugins or exporters.
+     * <p>
+     *     Note: Latencies and counters are only recorded if metrics are enabled in the configuration.
+     * </p>
+     *
+     * @return the metrics registry of this plugin.
+     */
+    public @NotNull MetricsRegistry getMetrics() {
+        return this.metrics;
+    }
+
     public @NotNull Settings getSettings() {
         return this.settings;
     }
@@ -53,6 +88,7 @@ public final class Economies extends JavaPlugin {
         this.settings.load();
 
         this.currency = new BasicCurrency(this.settings);
+        this.settings.subscribe(this.currency::reload);
     }
 
     @Override
@@ -67,6 +103,74 @@ public final class Economies extends JavaPlugin {
             return;
         }
 
+        // the registry must exist before the storage, as the storage records its connection acquire times
+        this.metrics = new MetricsRegistry(this.settings.isMetrics());
+
+        final DatabaseStorage database;
+
+        if (this.settings.getDatabaseType().equalsIgnoreCase("SQLite")) {
+            database = new SQLiteStorage(this);
+        } else {
+            database = new DatabaseStorage(this);
+        }
+
+        try {
+            database.initialize();
+        } catch (SQLException ex) {
+            this.getLogger().log(Level.SEVERE, "Could not initialize database storage. Disabling plugin...", ex);
+            this.getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
+
+        CachedStorage cache = null;
+
+        if (this.settings.isDatabaseCache()) {
+            cache = new CachedStorage(database);
+            cache.start(this.settings.getDatabaseCacheInterval());
+
+            this.storage = cache;
+        } else {
+            this.storage = database;
+        }
+
+        if (this.metrics.isEnabled()) {
+            this.storage = new MeteredStorage(this.storage, this.metrics);
+        }
+
+        this.executor = new EconomyExecutor(this.settings.getExecutorThreads(), this.settings.isExecutorVirtual());
+        this.mainThread = new MainThreadExecutor(this);
+        this.accounts = new AccountManager(this.storage, this.executor, this.mainThread,
+                this.settings.getAccountCacheSize(), this.settings.getAccountCacheExpire(),
+                this.settings.getAccountProvisionWindow(), this.settings.isAccountMailbox());
+
+        try {
+            this.accounts.initialize(this);
+        } catch (StorageException ex) {
+            this.getLogger().log(Level.SEVERE, "Could not initialize global bank account. Disabling plugin...", ex);
+            this.accounts.shutdown();
+            this.executor.shutdown();
+
+            // release the already started cache, ledger and database, as the plugin will not be disabled normally
+            this.storage.shutdown();
+            this.mainThread.shutdown();
+
+            this.storage = null;
+            this.getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
+
+        this.registerGauges(database, cache);
+        this.getServer().getPluginManager().registerEvents(new PlayerListener(this.accounts), this);
+
+        final PluginCommand command = this.getCommand("economies");
+
+        if (command != null) {
+            final EconomiesCommand executor = new EconomiesCommand(this);
+
+            command.setExecutor(executor);
+            command.setTabCompleter(executor);
+        }
+
         this.enabled = true;
     }
 
@@ -77,13 +181,58 @@ public final class Economies extends JavaPlugin {
             return;
         }
 
+        // provide the accounts of the last joined players and wait for running economy tasks, so that their changes
+        // will be included in the last cache flush
+        this.accounts.shutdown();
+        this.executor.shutdown();
+
+        // write all cached balance changes and queued transactions before the storage gets released
+        this.storage.shutdown();
+
+        // run the continuations of the last economy tasks, as the scheduler no longer runs tasks of this plugin
+        this.mainThread.shutdown();
+
         this.settings = null;
         this.storage = null;
+        this.executor = null;
+        this.mainThread = null;
         this.enabled = false;
 
         instance = null;
     }
 
+    private void registerGauges(@NotNull final DatabaseStorage database, @Nullable final CachedStorage cache) {
+        this.metrics.gauge("economy.executor.queue", this.executor::getQueueSize);
+        this.metrics.gauge("economy.executor.active", this.executor::getActiveCount);
+        this.metrics.gauge("economy.main-thread.queue", this.mainThread::getQueueSize);
+        this.metrics.gauge("accounts.cache.size", this.accounts::getCacheSize);
+        this.metrics.gauge("accounts.cache.hits", this.accounts::getCacheHits);
+        this.metrics.gauge("accounts.cache.misses", this.accounts::getCacheMisses);
+        this.metrics.gauge("accounts.cache.evictions", this.accounts::getCacheEvictions);
+        this.metrics.gauge("accounts.mailbox.merged", this.accounts::getMergedCount);
+
+        this.metrics.gauge("database.statements.hits", database::getStatementHitCount);
+        this.metrics.gauge("database.statements.misses", database::getStatementMissCount);
+        this.metrics.gauge("database.concurrency.retries", database::getRetryCount);
+        this.metrics.gauge("database.concurrency.conflicts", database::getConflictCount);
+        this.metrics.gauge("database.concurrency.deadlocks", database::getDeadlockCount);
+        this.metrics.gauge("database.concurrency.failures", database::getRetryFailureCount);
+        this.metrics.gauge("database.index.size", database::getIndexSize);
+        this.metrics.gauge("database.index.memory", database::getIndexMemoryUsage);
+        this.metrics.gauge("database.ledger.backlog", database.getLedger()::getBacklog);
+        this.metrics.gauge("database.ledger.written", database.getLedger()::getWrittenCount);
+        this.metrics.gauge("database.ledger.flush.size", database.getLedger()::getLastFlushSize);
+        this.metrics.gauge("database.ledger.flush.duration", database.getLedger()::getLastFlushDuration);
+
+        if (cache != null) {
+            this.metrics.gauge("storage.cache.dirty", cache::getDirtyCount);
+            this.metrics.gauge("storage.cache.pending", cache::getPendingCount);
+            this.metrics.gauge("storage.cache.lag", cache::getFlushLag);
+            this.metrics.gauge("storage.cache.flush.duration", cache::getLastFlushDuration);
+            this.metrics.gauge("storage.cache.dropped", cache::getDroppedCount);
+        }
+    }
+
     @Override
     public void reloadConfig() {
         this.settings.load();
@@ -0,0 +1,120 @@
+package com.github.g4memas0n.economies.command;
+
+import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.metrics.LatencyHistogram;
+import com.github.g4memas0n.economies.metrics.MetricsRegistry;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.jetbrains.annotations.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The economies command, that manages this plugin.
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public final class EconomiesCommand implements TabExecutor {
+
+    private static final String RELOAD = "reload";
+    private static final String STATS = "stats";
+
+    private final Economies plugin;
+
+    public EconomiesCommand(@NotNull final Economies plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(@NotNull final CommandSender sender, @NotNull final Command command,
+                             @NotNull final String label, @NotNull final String[] arguments) {
+        if (arguments.length != 1) {
+            return false;
+        }
+
+        if (arguments[0].equalsIgnoreCase(RELOAD)) {
+            if (!sender.hasPermission("economies.reload")) {
+                sender.sendMessage("You do not have permission to reload the configuration.");
+                return true;
+            }
+
+            // the settings get published at once, so running operations never see a partially reloaded configuration
+            this.plugin.reloadConfig();
+            sender.sendMessage("Reloaded the configuration of " + this.plugin.getName() + ".");
+            return true;
+        }
+
+        if (arguments[0].equalsIgnoreCase(STATS)) {
+            if (!sender.hasPermission("economies.stats")) {
+                sender.sendMessage("You do not have permission to view the statistics.");
+                return true;
+            }
+
+            this.sendStats(sender);
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public @NotNull List<String> onTabComplete(@NotNull final CommandSender sender, @NotNull final Command command,
+                                               @NotNull final String label, @NotNull final String[] arguments) {
+        final List<String> completions = new ArrayList<>();
+
+        if (arguments.length == 1) {
+            final String argument = arguments[0].toLowerCase(Locale.ROOT);
+
+            if (RELOAD.startsWith(argument) && sender.hasPermission("economies.reload")) {
+                completions.add(RELOAD);
+            }
+
+            if (STATS.startsWith(argument) && sender.hasPermission("economies.stats")) {
+                completions.add(STATS);
+            }
+        }
+
+        return completions;
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private void sendStats(@NotNull final CommandSender sender) {
+        final MetricsRegistry metrics = this.plugin.getMetrics();
+
+        sender.sendMessage("Statistics of " + this.plugin.getName() + ":");
+
+        for (final Map.Entry<String, Long> gauge : metrics.getGauges().entrySet()) {
+            sender.sendMessage(String.format(Locale.ROOT, "  %s: %d", gauge.getKey(), gauge.getValue()));
+        }
+
+        for (final Map.Entry<String, Long> counter : metrics.getCounters().entrySet()) {
+            sender.sendMessage(String.format(Locale.ROOT, "  %s: %d", counter.getKey(), counter.getValue()));
+        }
+
+        if (!metrics.isEnabled()) {
+            sender.sendMessage("Latencies are not recorded, as metrics are disabled in the configuration.");
+            return;
+        }
+
+        for (final Map.Entry<String, LatencyHistogram> timer : metrics.getTimers().entrySet()) {
+            final LatencyHistogram histogram = timer.getValue();
+
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+
+            sender.sendMessage(String.format(Locale.ROOT, "  %s: %d calls, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                    timer.getKey(), histogram.getCount(),
+                    histogram.getPercentile(50, TimeUnit.MILLISECONDS), histogram.getPercentile(99, TimeUnit.MILLISECONDS),
+                    histogram.getPercentile(100, TimeUnit.MILLISECONDS)));
+        }
+    }
+}
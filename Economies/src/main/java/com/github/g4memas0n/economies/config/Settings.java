@@ -7,15 +7,21 @@ import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.jetbrains.annotations.NotNull;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * The Settings class that represent the configuration file of this plugin.
@@ -28,19 +34,23 @@ public final class Settings {
     private final YamlConfiguration defaults;
     private final Configuration config;
 
-    private BigDecimal initial;
-
-    private boolean overdraft;
-    private boolean infinite;
-
-    private boolean debug;
+    private final List<Consumer<Snapshot>> listeners;
+    private volatile Snapshot snapshot;
 
     public Settings(@NotNull final Economies plugin) {
         this.config = new Configuration(plugin);
         this.defaults = new YamlConfiguration();
+        this.listeners = new CopyOnWriteArrayList<>();
     }
 
-    public void load() {
+    /**
+     * Loads the configuration file into a new snapshot and publishes it.
+     * <p>
+     *     All settings are validated while loading, so that getters only read fields of the current snapshot. As the
+     *     snapshot gets published at once, readers see either all or none of the reloaded settings.
+     * </p>
+     */
+    public synchronized void load() {
         this.config.load();
 
         try {
@@ -54,13 +64,44 @@ public final class Settings {
             Economies.warn("Could not load configuration %s: %s", this.config.getFilename(), ex.getMessage());
         }
 
-        this.initial = loadInitialBalance();
-        this.overdraft = loadOverdraftBalance();
-        this.infinite = loadBankInfinite();
+        final Snapshot previous = this.snapshot;
+        final Snapshot snapshot = new Snapshot(
+                loadInitialBalance(), loadOverdraftBalance(),
+                loadBankBalance(), loadBankInfinite(), loadBankStripes(),
+                loadAccountCacheSize(), loadAccountCacheExpire(), loadAccountProvisionWindow(), loadAccountMailbox(),
+                loadCurrencyPattern(), loadCurrencyLocale(), loadCurrencySymbol(), loadCurrencySuffix(),
+                loadDatabaseType(), loadDatabaseProperties(), loadDatabaseCache(), loadDatabaseCacheInterval(),
+                loadDatabaseStatementCache(), loadDatabaseIndex(), loadDatabaseIndexDirect(),
+                loadDatabaseSnapshot(), loadDatabaseOptimistic(), loadDatabaseRetryAttempts(), loadDatabaseRetryBackoff(),
+                loadLedgerSize(), loadLedgerLatency(),
+                loadExecutorThreads(), loadExecutorVirtual(),
+                loadMetrics(), loadDebug()
+        );
+
+        this.snapshot = snapshot;
+
+        if (previous != null) {
+            if (previous.requiresRestart(snapshot)) {
+                Economies.warn("Some changed settings in %s will only apply after a restart", this.config.getFilename());
+            }
 
+            for (final Consumer<Snapshot> listener : this.listeners) {
+                listener.accept(snapshot);
+            }
+        }
+    }
 
+    /**
+     * Subscribes the specified {@code listener} to reloads of the configuration.
+     *
+     * @param listener the listener that gets called with the new snapshot after each reload.
+     */
+    public void subscribe(@NotNull final Consumer<Snapshot> listener) {
+        this.listeners.add(listener);
+    }
 
-        this.debug = loadDebug();
+    public @NotNull Snapshot getSnapshot() {
+        return this.snapshot;
     }
 
     public void save() {
@@ -86,7 +127,7 @@ public final class Settings {
     }
 
     public @NotNull BigDecimal getInitialBalance() {
-        return this.initial;
+        return this.snapshot.initialBalance();
     }
 
     private boolean loadOverdraftBalance() {
@@ -94,14 +135,14 @@ public final class Settings {
     }
 
     public boolean isOverdraftBalance() {
-        return this.overdraft;
+        return this.snapshot.overdraftBalance();
     }
 
     /*
      * Bank settings:
      */
 
-    public @NotNull BigDecimal loadBankBalance() {
+    private @NotNull BigDecimal loadBankBalance() {
         long amount = this.config.getLong("bank.balance");
 
         if (amount < 0) {
@@ -113,7 +154,7 @@ public final class Settings {
     }
 
     public @NotNull BigDecimal getBankBalance() {
-        return loadBankBalance();
+        return this.snapshot.bankBalance();
     }
 
     private boolean loadBankInfinite() {
@@ -121,20 +162,36 @@ public final class Settings {
     }
 
     public boolean isBankInfinite() {
-        return this.infinite;
+        return this.snapshot.bankInfinite();
+    }
+
+    private int loadBankStripes() {
+        int stripes = this.config.getInt("bank.stripes");
+
+        if (stripes <= 0) {
+            Economies.warn("Could not load bank stripes in %s: illegal value", this.config.getFilename());
+            stripes = this.defaults.getInt("bank.stripes");
+        }
+
+        return stripes;
+    }
+
+    public int getBankStripes() {
+        return this.snapshot.bankStripes();
     }
 
     /*
      * currency settings:
      */
 
-    private @NotNull DecimalFormat loadCurrencyFormat() {
-        String pattern = this.config.getString("currency.format");
-        DecimalFormat format = null;
+    private @NotNull String loadCurrencyPattern() {
+        final String pattern = this.config.getString("currency.format");
 
         if (pattern != null && !pattern.isBlank()) {
             try {
-                format = new DecimalFormat(pattern);
+                // validates the pattern, so that the snapshot can always create the decimal format
+                new DecimalFormat(pattern);
+                return pattern;
             } catch (IllegalArgumentException ex) {
                 Economies.warn("Could not setup currency format in %s: %s", this.config.getFilename(), ex.getMessage());
             }
@@ -142,12 +199,7 @@ public final class Settings {
             Economies.warn("Could not find currency format in %s", this.config.getFilename());
         }
 
-        if (format == null) {
-            format = new DecimalFormat(Objects.requireNonNull(this.defaults.getString("currency.format")));
-        }
-
-        format.setDecimalFormatSymbols(DecimalFormatSymbols.getInstance(loadCurrencyLocale()));
-        return format;
+        return Objects.requireNonNull(this.defaults.getString("currency.format"));
     }
 
     private @NotNull Locale loadCurrencyLocale() {
@@ -162,7 +214,7 @@ public final class Settings {
     }
 
     public @NotNull DecimalFormat getCurrencyFormat() {
-        return loadCurrencyFormat();
+        return this.snapshot.createCurrencyFormat();
     }
 
     private @NotNull String loadCurrencySymbol() {
@@ -177,7 +229,7 @@ public final class Settings {
     }
 
     public @NotNull String getCurrencySymbol() {
-        return loadCurrencySymbol();
+        return this.snapshot.currencySymbol();
     }
 
     private boolean loadCurrencySuffix() {
@@ -185,7 +237,7 @@ public final class Settings {
     }
 
     public boolean isCurrencySuffix() {
-        return loadCurrencySuffix();
+        return this.snapshot.currencySuffix();
     }
 
     /*
@@ -204,10 +256,10 @@ public final class Settings {
     }
 
     public @NotNull String getDatabaseType() {
-        return loadDatabaseType();
+        return this.snapshot.databaseType();
     }
 
-    private @NotNull Properties loadDatabaseProperties() {
+    private @NotNull Map<String, String> loadDatabaseProperties() {
         ConfigurationSection section = this.config.getConfigurationSection("database.properties");
 
         if (section == null) {
@@ -215,22 +267,266 @@ public final class Settings {
             section = Objects.requireNonNull(this.defaults.getConfigurationSection("database.properties"));
         }
 
-        Properties properties = new Properties();
+        final Map<String, String> properties = new HashMap<>();
         String value;
 
         for (final Placeholder entry : Placeholder.values()) {
             value = section.getString(entry.getKey());
 
             if (value != null) {
-                properties.setProperty(entry.getKey(), value);
+                properties.put(entry.getKey(), value);
             }
         }
 
-        return properties;
+        if (loadDatabaseType().equalsIgnoreCase("SQLite")) {
+            // the embedded database is a file inside the plugin folder, named after the configured database
+            String name = properties.get("database");
+
+            if (name == null || name.isBlank()) {
+                name = "economies";
+            }
+
+            properties.put("database", new File(this.config.getPlugin().getDataFolder(), name + ".db").getAbsolutePath());
+        }
+
+        return Map.copyOf(properties);
     }
 
     public @NotNull Properties getDatabaseProperties() {
-        return loadDatabaseProperties();
+        final Properties properties = new Properties();
+
+        properties.putAll(this.snapshot.databaseProperties());
+        return properties;
+    }
+
+    private boolean loadDatabaseCache() {
+        return this.config.getBoolean("database.cache.enabled", this.defaults.getBoolean("database.cache.enabled"));
+    }
+
+    public boolean isDatabaseCache() {
+        return this.snapshot.databaseCache();
+    }
+
+    private int loadDatabaseCacheInterval() {
+        int interval = this.config.getInt("database.cache.interval");
+
+        if (interval <= 0) {
+            Economies.warn("Could not load cache interval in %s: illegal value", this.config.getFilename());
+            interval = this.defaults.getInt("database.cache.interval");
+        }
+
+        return interval;
+    }
+
+    public int getDatabaseCacheInterval() {
+        return this.snapshot.databaseCacheInterval();
+    }
+
+    private boolean loadDatabaseStatementCache() {
+        return this.config.getBoolean("database.statements.cache", this.defaults.getBoolean("database.statements.cache"));
+    }
+
+    public boolean isDatabaseStatementCache() {
+        return this.snapshot.databaseStatementCache();
+    }
+
+    private boolean loadDatabaseIndex() {
+        return this.config.getBoolean("database.index.enabled", this.defaults.getBoolean("database.index.enabled"));
+    }
+
+    public boolean isDatabaseIndex() {
+        return this.snapshot.databaseIndex();
+    }
+
+    private boolean loadDatabaseIndexDirect() {
+        return this.config.getBoolean("database.index.direct", this.defaults.getBoolean("database.index.direct"));
+    }
+
+    public boolean isDatabaseIndexDirect() {
+        return this.snapshot.databaseIndexDirect();
+    }
+
+    private boolean loadDatabaseSnapshot() {
+        return this.config.getBoolean("database.snapshot", this.defaults.getBoolean("database.snapshot"));
+    }
+
+    public boolean isDatabaseSnapshot() {
+        return this.snapshot.databaseSnapshot();
+    }
+
+    private boolean loadDatabaseOptimistic() {
+        final String mode = this.config.getString("database.concurrency.mode",
+                this.defaults.getString("database.concurrency.mode"));
+
+        if (mode != null && mode.equalsIgnoreCase("optimistic")) {
+            return true;
+        }
+
+        if (mode == null || !mode.equalsIgnoreCase("pessimistic")) {
+            Economies.warn("Could not load concurrency mode in %s: illegal value", this.config.getFilename());
+        }
+
+        return false;
+    }
+
+    public boolean isDatabaseOptimistic() {
+        return this.snapshot.databaseOptimistic();
+    }
+
+    private int loadDatabaseRetryAttempts() {
+        int attempts = this.config.getInt("database.concurrency.attempts");
+
+        if (attempts <= 0) {
+            Economies.warn("Could not load concurrency attempts in %s: illegal value", this.config.getFilename());
+            attempts = this.defaults.getInt("database.concurrency.attempts");
+        }
+
+        return attempts;
+    }
+
+    public int getDatabaseRetryAttempts() {
+        return this.snapshot.databaseRetryAttempts();
+    }
+
+    private int loadDatabaseRetryBackoff() {
+        int backoff = this.config.getInt("database.concurrency.backoff");
+
+        if (backoff <= 0) {
+            Economies.warn("Could not load concurrency backoff in %s: illegal value", this.config.getFilename());
+            backoff = this.defaults.getInt("database.concurrency.backoff");
+        }
+
+        return backoff;
+    }
+
+    public int getDatabaseRetryBackoff() {
+        return this.snapshot.databaseRetryBackoff();
+    }
+
+    private int loadLedgerSize() {
+        int size = this.config.getInt("database.ledger.size");
+
+        if (size <= 0) {
+            Economies.warn("Could not load ledger size in %s: illegal value", this.config.getFilename());
+            size = this.defaults.getInt("database.ledger.size");
+        }
+
+        return size;
+    }
+
+    public int getLedgerSize() {
+        return this.snapshot.ledgerSize();
+    }
+
+    private int loadLedgerLatency() {
+        int latency = this.config.getInt("database.ledger.latency");
+
+        if (latency <= 0) {
+            Economies.warn("Could not load ledger latency in %s: illegal value", this.config.getFilename());
+            latency = this.defaults.getInt("database.ledger.latency");
+        }
+
+        return latency;
+    }
+
+    public int getLedgerLatency() {
+        return this.snapshot.ledgerLatency();
+    }
+
+    /*
+     * account cache settings:
+     */
+
+    private int loadAccountCacheSize() {
+        int size = this.config.getInt("accounts.size");
+
+        if (size <= 0) {
+            Economies.warn("Could not load account cache size in %s: illegal value", this.config.getFilename());
+            size = this.defaults.getInt("accounts.size");
+        }
+
+        return size;
+    }
+
+    public int getAccountCacheSize() {
+        return this.snapshot.accountCacheSize();
+    }
+
+    private int loadAccountCacheExpire() {
+        int expire = this.config.getInt("accounts.expire");
+
+        if (expire <= 0) {
+            Economies.warn("Could not load account cache expire in %s: illegal value", this.config.getFilename());
+            expire = this.defaults.getInt("accounts.expire");
+        }
+
+        return expire;
+    }
+
+    public int getAccountCacheExpire() {
+        return this.snapshot.accountCacheExpire();
+    }
+
+    private int loadAccountProvisionWindow() {
+        int window = this.config.getInt("accounts.window");
+
+        if (window < 0) {
+            Economies.warn("Could not load account provision window in %s: illegal value", this.config.getFilename());
+            window = this.defaults.getInt("accounts.window");
+        }
+
+        return window;
+    }
+
+    public int getAccountProvisionWindow() {
+        return this.snapshot.accountProvisionWindow();
+    }
+
+    private boolean loadAccountMailbox() {
+        return this.config.getBoolean("accounts.mailbox", this.defaults.getBoolean("accounts.mailbox"));
+    }
+
+    public boolean isAccountMailbox() {
+        return this.snapshot.accountMailbox();
+    }
+
+    /*
+     * executor settings:
+     */
+
+    private int loadExecutorThreads() {
+        int threads = this.config.getInt("executor.threads");
+
+        if (threads <= 0) {
+            Economies.warn("Could not load executor threads in %s: illegal value", this.config.getFilename());
+            threads = this.defaults.getInt("executor.threads");
+        }
+
+        return threads;
+    }
+
+    public int getExecutorThreads() {
+        return this.snapshot.executorThreads();
+    }
+
+    private boolean loadExecutorVirtual() {
+        return this.config.getBoolean("executor.virtual", this.defaults.getBoolean("executor.virtual"));
+    }
+
+    public boolean isExecutorVirtual() {
+        return this.snapshot.executorVirtual();
+    }
+
+    /*
+     * metrics settings:
+     */
+
+    private boolean loadMetrics() {
+        return this.config.getBoolean("metrics", this.defaults.getBoolean("metrics"));
+    }
+
+    public boolean isMetrics() {
+        return this.snapshot.metrics();
     }
 
     /*
@@ -242,6 +538,70 @@ public final class Settings {
     }
 
     public boolean isDebug() {
-        return this.debug;
+        return this.snapshot.debug();
+    }
+
+    /**
+     * An immutable and validated snapshot of the settings.
+     * <p>
+     *     Note: Settings that configure the storage, the executor or the caches are only applied on startup, as the
+     *     components using them can not be changed while they are running.
+     * </p>
+     */
+    public record Snapshot(@NotNull BigDecimal initialBalance, boolean overdraftBalance,
+                           @NotNull BigDecimal bankBalance, boolean bankInfinite, int bankStripes,
+                           int accountCacheSize, int accountCacheExpire, int accountProvisionWindow,
+                           boolean accountMailbox,
+                           @NotNull String currencyPattern, @NotNull Locale currencyLocale,
+                           @NotNull String currencySymbol, boolean currencySuffix,
+                           @NotNull String databaseType, @NotNull Map<String, String> databaseProperties,
+                           boolean databaseCache, int databaseCacheInterval, boolean databaseStatementCache,
+                           boolean databaseIndex, boolean databaseIndexDirect, boolean databaseSnapshot,
+                           boolean databaseOptimistic, int databaseRetryAttempts, int databaseRetryBackoff,
+                           int ledgerSize, int ledgerLatency,
+                           int executorThreads, boolean executorVirtual,
+                           boolean metrics, boolean debug) {
+
+        /**
+         * Creates a new decimal format for the currency, as decimal formats are mutable and not thread-safe.
+         *
+         * @return the new currency decimal format.
+         */
+        public @NotNull DecimalFormat createCurrencyFormat() {
+            final DecimalFormat format = new DecimalFormat(this.currencyPattern);
+
+            format.setDecimalFormatSymbols(DecimalFormatSymbols.getInstance(this.currencyLocale));
+            return format;
+        }
+
+        /**
+         * Returns whether the specified {@code snapshot} changes settings that are only applied on startup.
+         *
+         * @param snapshot the reloaded snapshot.
+         * @return true if a restart is required to apply all changes.
+         */
+        public boolean requiresRestart(@NotNull final Snapshot snapshot) {
+            return this.bankStripes != snapshot.bankStripes
+                    || this.accountCacheSize != snapshot.accountCacheSize
+                    || this.accountCacheExpire != snapshot.accountCacheExpire
+                    || this.accountProvisionWindow != snapshot.accountProvisionWindow
+                    || this.accountMailbox != snapshot.accountMailbox
+                    || !this.databaseType.equals(snapshot.databaseType)
+                    || !this.databaseProperties.equals(snapshot.databaseProperties)
+                    || this.databaseCache != snapshot.databaseCache
+                    || this.databaseCacheInterval != snapshot.databaseCacheInterval
+                    || this.databaseStatementCache != snapshot.databaseStatementCache
+                    || this.databaseIndex != snapshot.databaseIndex
+                    || this.databaseIndexDirect != snapshot.databaseIndexDirect
+                    || this.databaseSnapshot != snapshot.databaseSnapshot
+                    || this.databaseOptimistic != snapshot.databaseOptimistic
+                    || this.databaseRetryAttempts != snapshot.databaseRetryAttempts
+                    || this.databaseRetryBackoff != snapshot.databaseRetryBackoff
+                    || this.ledgerSize != snapshot.ledgerSize
+                    || this.ledgerLatency != snapshot.ledgerLatency
+                    || this.executorThreads != snapshot.executorThreads
+                    || this.executorVirtual != snapshot.executorVirtual
+                    || this.metrics != snapshot.metrics;
+        }
     }
 }
@@ -0,0 +1,131 @@
+package com.github.g4memas0n.economies.economy;
+
+import com.github.g4memas0n.economies.Economies;
+import org.jetbrains.annotations.NotNull;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The executor that runs all blocking storage operations of the economy.
+ * <p>
+ *     Either uses a bounded pool of platform threads, that should be sized to the connection pool of the storage, or
+ *     a virtual thread per task if requested and supported by the running java version.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public class EconomyExecutor implements Executor {
+
+    private final AtomicInteger queued;
+    private final AtomicInteger active;
+    private final AtomicLong completed;
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+
+    public EconomyExecutor(final int threads, final boolean virtual) {
+        ExecutorService executor = null;
+
+        if (virtual) {
+            try {
+                executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | UnsupportedOperationException ex) {
+                Economies.warn("Virtual threads are not supported by this java version, using thread pool instead");
+            }
+        }
+
+        if (executor == null) {
+            final AtomicInteger counter = new AtomicInteger();
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                final Thread thread = new Thread(runnable, "Economies-Worker-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+
+        this.queued = new AtomicInteger();
+        this.active = new AtomicInteger();
+        this.completed = new AtomicLong();
+        this.executor = executor;
+        this.virtual = !(executor instanceof ThreadPoolExecutor);
+    }
+
+    @Override
+    public void execute(@NotNull final Runnable command) {
+        this.queued.incrementAndGet();
+
+        try {
+            this.executor.execute(() -> {
+                this.queued.decrementAndGet();
+                this.active.incrementAndGet();
+
+                try {
+                    command.run();
+                } finally {
+                    this.active.decrementAndGet();
+                    this.completed.incrementAndGet();
+                }
+            });
+        } catch (RuntimeException ex) {
+            this.queued.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    public void shutdown() {
+        this.executor.shutdown();
+
+        try {
+            if (!this.executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                Economies.warn("Timed out while waiting for %d economy tasks to finish", this.active.get() + this.queued.get());
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            this.executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Executor metrics:
+     */
+
+    /**
+     * Returns the number of tasks that are submitted, but not yet started.
+     * @return the current queue depth.
+     */
+    public int getQueueSize() {
+        return this.queued.get();
+    }
+
+    /**
+     * Returns the number of tasks that are currently running.
+     * @return the number of active tasks.
+     */
+    public int getActiveCount() {
+        return this.active.get();
+    }
+
+    /**
+     * Returns the number of tasks that have finished since this executor was created.
+     * @return the number of completed tasks.
+     */
+    public long getCompletedCount() {
+        return this.completed.get();
+    }
+
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+}
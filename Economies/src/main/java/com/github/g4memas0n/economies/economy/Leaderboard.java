@@ -0,0 +1,283 @@
+package com.github.g4memas0n.economies.economy;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The leaderboard of the account balances, ordered from the highest to the lowest balance.
+ * <p>
+ *     The balances are held in cents in an order-statistic treap, so that updates, top-N and rank queries run in
+ *     logarithmic time instead of sorting all accounts. Accounts with equal balances are ordered by their unique-id.
+ * </p>
+ * <p>
+ *     Note: Changes of balances that are not initialized yet are ignored, as the balance of the account is unknown
+ *     until it gets set.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public final class Leaderboard {
+
+    private final Map<UUID, Long> balances;
+    private Node root;
+
+    public Leaderboard() {
+        this.balances = new HashMap<>();
+    }
+
+    /**
+     * Sets the balance of the account with the specified {@code uniqueId}.
+     *
+     * @param uniqueId the unique-id of the account.
+     * @param balance the new balance of the account.
+     */
+    public void set(@NotNull final UUID uniqueId, @NotNull final BigDecimal balance) {
+        setCents(uniqueId, Money.toCents(balance));
+    }
+
+    public synchronized void setCents(@NotNull final UUID uniqueId, final long balance) {
+        final Long previous = this.balances.put(uniqueId, balance);
+
+        if (previous != null) {
+            this.root = delete(this.root, previous, uniqueId);
+        }
+
+        this.root = insert(this.root, new Node(uniqueId, balance));
+    }
+
+    /**
+     * Adds the specified {@code amount} to the balance of the account with the specified {@code uniqueId}, if it has a
+     * known balance.
+     *
+     * @param uniqueId the unique-id of the account.
+     * @param amount the amount to add, which is negative for withdrawals.
+     */
+    public void add(@NotNull final UUID uniqueId, @NotNull final BigDecimal amount) {
+        addCents(uniqueId, Money.toCents(amount));
+    }
+
+    public synchronized void addCents(@NotNull final UUID uniqueId, final long amount) {
+        final Long previous = this.balances.get(uniqueId);
+
+        if (previous != null) {
+            setCents(uniqueId, Math.addExact(previous, amount));
+        }
+    }
+
+    public synchronized void remove(@NotNull final UUID uniqueId) {
+        final Long previous = this.balances.remove(uniqueId);
+
+        if (previous != null) {
+            this.root = delete(this.root, previous, uniqueId);
+        }
+    }
+
+    public synchronized void replace(@NotNull final UUID previous, @NotNull final UUID uniqueId) {
+        final Long balance = this.balances.get(previous);
+
+        if (balance != null) {
+            remove(previous);
+            setCents(uniqueId, balance);
+        }
+    }
+
+    public synchronized void clear() {
+        this.balances.clear();
+        this.root = null;
+    }
+
+    /**
+     * Gets the accounts with the highest balances.
+     *
+     * @param limit the maximum number of accounts to get.
+     * @return the accounts ordered from the highest to the lowest balance.
+     */
+    public synchronized @NotNull List<Entry> getTop(final int limit) {
+        final List<Entry> entries = new ArrayList<>(Math.min(limit, size(this.root)));
+
+        collect(this.root, entries, limit);
+        return entries;
+    }
+
+    /**
+     * Gets the rank of the account with the specified {@code uniqueId}, starting with one for the highest balance.
+     *
+     * @param uniqueId the unique-id of the account.
+     * @return the rank of the account, or zero if the balance of the account is unknown.
+     */
+    public synchronized int getRank(@NotNull final UUID uniqueId) {
+        final Long balance = this.balances.get(uniqueId);
+
+        if (balance == null) {
+            return 0;
+        }
+
+        Node node = this.root;
+        int rank = 1;
+
+        while (node != null) {
+            final int compare = compare(balance, uniqueId, node);
+
+            if (compare == 0) {
+                return rank + size(node.left);
+            }
+
+            if (compare < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+
+        return 0;
+    }
+
+    public synchronized @Nullable BigDecimal getBalance(@NotNull final UUID uniqueId) {
+        final Long balance = this.balances.get(uniqueId);
+
+        return balance != null ? Money.toDecimal(balance) : null;
+    }
+
+    public synchronized int size() {
+        return this.balances.size();
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private static int compare(final long balance, @NotNull final UUID uniqueId, @NotNull final Node node) {
+        // higher balances come first
+        final int compare = Long.compare(node.balance, balance);
+
+        return compare != 0 ? compare : uniqueId.compareTo(node.uniqueId);
+    }
+
+    private static int size(@Nullable final Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static @NotNull Node update(@NotNull final Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static @NotNull Node insert(@Nullable final Node node, @NotNull final Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+
+        if (compare(inserted.balance, inserted.uniqueId, node) < 0) {
+            node.left = insert(node.left, inserted);
+
+            if (node.left.priority > node.priority) {
+                return rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, inserted);
+
+            if (node.right.priority > node.priority) {
+                return rotateLeft(node);
+            }
+        }
+
+        return update(node);
+    }
+
+    private static @Nullable Node delete(@Nullable final Node node, final long balance,
+                                         @NotNull final UUID uniqueId) {
+        if (node == null) {
+            return null;
+        }
+
+        final int compare = compare(balance, uniqueId, node);
+
+        if (compare < 0) {
+            node.left = delete(node.left, balance, uniqueId);
+        } else if (compare > 0) {
+            node.right = delete(node.right, balance, uniqueId);
+        } else {
+            return merge(node.left, node.right);
+        }
+
+        return update(node);
+    }
+
+    private static @Nullable Node merge(@Nullable final Node left, @Nullable final Node right) {
+        if (left == null || right == null) {
+            return left != null ? left : right;
+        }
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private static @NotNull Node rotateRight(@NotNull final Node node) {
+        final Node pivot = node.left;
+
+        node.left = pivot.right;
+        pivot.right = update(node);
+        return update(pivot);
+    }
+
+    private static @NotNull Node rotateLeft(@NotNull final Node node) {
+        final Node pivot = node.right;
+
+        node.right = pivot.left;
+        pivot.left = update(node);
+        return update(pivot);
+    }
+
+    private static void collect(@Nullable final Node node, @NotNull final List<Entry> entries, final int limit) {
+        if (node == null || entries.size() >= limit) {
+            return;
+        }
+
+        collect(node.left, entries, limit);
+
+        if (entries.size() < limit) {
+            entries.add(new Entry(node.uniqueId, Money.toDecimal(node.balance)));
+            collect(node.right, entries, limit);
+        }
+    }
+
+    /**
+     * An immutable entry of the leaderboard.
+     *
+     * @param uniqueId the unique-id of the account.
+     * @param balance the balance of the account.
+     */
+    public record Entry(@NotNull UUID uniqueId, @NotNull BigDecimal balance) { }
+
+    private static final class Node {
+
+        private final UUID uniqueId;
+        private final long balance;
+        private final int priority;
+
+        private Node left;
+        private Node right;
+        private int size;
+
+        private Node(@NotNull final UUID uniqueId, final long balance) {
+            this.uniqueId = uniqueId;
+            this.balance = balance;
+            this.priority = ThreadLocalRandom.current().nextInt();
+            this.size = 1;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.g4memas0n.economies.economy;
+
+import com.github.g4memas0n.economies.Economies;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * The executor that runs the continuations of economy results on the main thread of the server.
+ * <p>
+ *     Continuations are queued and run in a single batch on the next tick, so that any number of completed results
+ *     only schedules one task per tick instead of one task per result. Continuations that get queued while a batch is
+ *     running are deferred to the following tick, so that chained continuations can not stall a tick.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public class MainThreadExecutor implements Executor {
+
+    private final Queue<Runnable> queue;
+    private final AtomicInteger queued;
+    private final AtomicBoolean scheduled;
+    private final Plugin plugin;
+
+    private volatile boolean running;
+    private volatile long batches;
+
+    public MainThreadExecutor(@NotNull final Plugin plugin) {
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.queued = new AtomicInteger();
+        this.scheduled = new AtomicBoolean();
+        this.plugin = plugin;
+        this.running = true;
+    }
+
+    @Override
+    public void execute(@NotNull final Runnable command) {
+        if (!this.running) {
+            throw new RejectedExecutionException("executor already shut down");
+        }
+
+        this.queue.add(command);
+        this.queued.incrementAndGet();
+
+        // only the first continuation of a tick schedules the batch, all following ones join it
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.plugin.getServer().getScheduler().runTask(this.plugin, this::run);
+        }
+    }
+
+    /**
+     * Shuts down this executor and runs all queued continuations.<br>
+     * This method must be called on the main thread, as the scheduler no longer runs tasks of a disabled plugin.
+     */
+    public void shutdown() {
+        this.running = false;
+
+        Runnable command;
+
+        while ((command = this.queue.poll()) != null) {
+            this.queued.decrementAndGet();
+            run(command);
+        }
+    }
+
+    /*
+     * Executor metrics:
+     */
+
+    /**
+     * Returns the number of continuations that are queued, but not yet run.
+     * @return the current queue depth.
+     */
+    public int getQueueSize() {
+        return this.queued.get();
+    }
+
+    /**
+     * Returns the number of batches that ran since this executor was created.
+     * @return the number of ticks that ran continuations.
+     */
+    public long getBatchCount() {
+        return this.batches;
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private void run() {
+        // reset the flag first, so that continuations queued from now on schedule the batch of the next tick
+        this.scheduled.set(false);
+
+        int remaining = this.queued.get();
+        Runnable command;
+
+        while (remaining-- > 0 && (command = this.queue.poll()) != null) {
+            this.queued.decrementAndGet();
+            run(command);
+        }
+
+        this.batches++;
+    }
+
+    private static void run(@NotNull final Runnable command) {
+        try {
+            command.run();
+        } catch (RuntimeException ex) {
+            // a failing continuation must not prevent the remaining continuations of the batch from running
+            Economies.log(Level.SEVERE, "Could not run economy continuation on main thread: %s", ex.getMessage());
+        }
+    }
+}
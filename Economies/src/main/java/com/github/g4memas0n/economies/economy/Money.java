@@ -0,0 +1,125 @@
+package com.github.g4memas0n.economies.economy;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An immutable amount of money, stored as a number of cents.
+ * <p>
+ *     As all amounts of this plugin have a scale of two, the cents fit into a {@code long} and arithmetic on them does
+ *     not allocate any objects. All operations are overflow-checked and throw an {@link ArithmeticException} instead of
+ *     silently wrapping around.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    public static final int SCALE = 2;
+
+    private final long cents;
+
+    private Money(final long cents) {
+        this.cents = cents;
+    }
+
+    public static @NotNull Money ofCents(final long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Returns the money for the specified {@code decimal}, rounded down to a scale of two.
+     *
+     * @param decimal the decimal amount.
+     * @return the money of the amount.
+     * @throws ArithmeticException if the amount does not fit into a long of cents.
+     */
+    public static @NotNull Money of(@NotNull final BigDecimal decimal) {
+        return ofCents(toCents(decimal));
+    }
+
+    /**
+     * Converts the specified {@code decimal} into cents, rounded down to a scale of two.
+     *
+     * @param decimal the decimal amount.
+     * @return the cents of the amount.
+     * @throws ArithmeticException if the amount does not fit into a long of cents.
+     */
+    public static long toCents(@NotNull final BigDecimal decimal) {
+        // setScale returns the same instance if the scale is already two, so this only allocates the shifted decimal
+        return decimal.setScale(SCALE, RoundingMode.FLOOR).movePointRight(SCALE).longValueExact();
+    }
+
+    public static @NotNull BigDecimal toDecimal(final long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public long getCents() {
+        return this.cents;
+    }
+
+    public @NotNull BigDecimal toBigDecimal() {
+        return toDecimal(this.cents);
+    }
+
+    public @NotNull Money add(@NotNull final Money money) {
+        return ofCents(Math.addExact(this.cents, money.cents));
+    }
+
+    public @NotNull Money subtract(@NotNull final Money money) {
+        return ofCents(Math.subtractExact(this.cents, money.cents));
+    }
+
+    public @NotNull Money multiply(final long factor) {
+        return ofCents(Math.multiplyExact(this.cents, factor));
+    }
+
+    public @NotNull Money negate() {
+        return ofCents(Math.negateExact(this.cents));
+    }
+
+    public int signum() {
+        return Long.signum(this.cents);
+    }
+
+    public boolean isNegative() {
+        return this.cents < 0;
+    }
+
+    public boolean isGreaterThan(@NotNull final Money money) {
+        return this.cents > money.cents;
+    }
+
+    public boolean isLessThan(@NotNull final Money money) {
+        return this.cents < money.cents;
+    }
+
+    @Override
+    public int compareTo(@NotNull final Money money) {
+        return Long.compare(this.cents, money.cents);
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object object) {
+        if (object == this) {
+            return true;
+        }
+
+        return object instanceof Money other && this.cents == other.cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.cents);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
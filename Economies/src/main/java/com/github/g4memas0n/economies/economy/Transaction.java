@@ -0,0 +1,79 @@
+package com.github.g4memas0n.economies.economy;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An immutable transaction from the ledger, that moved an amount from a sender to a receiver.
+ * <p>
+ *     Note: Transactions with the global bank account use the nil uuid ({@code 00000000-0000-0000-0000-000000000000})
+ *     for the bank. The sender or receiver is null if the account was deleted in the meantime.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public final class Transaction {
+
+    private final long id;
+    private final UUID sender;
+    private final UUID receiver;
+    private final BigDecimal amount;
+    private final Instant timestamp;
+
+    public Transaction(final long id, @Nullable final UUID sender, @Nullable final UUID receiver,
+                       @NotNull final BigDecimal amount, @NotNull final Instant timestamp) {
+        this.id = id;
+        this.sender = sender;
+        this.receiver = receiver;
+        this.amount = amount;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Returns the id of this transaction, that breaks ties between transactions with the same timestamp.
+     * @return the id of this transaction.
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    public @Nullable UUID getSender() {
+        return this.sender;
+    }
+
+    public @Nullable UUID getReceiver() {
+        return this.receiver;
+    }
+
+    public @NotNull BigDecimal getAmount() {
+        return this.amount;
+    }
+
+    public @NotNull Instant getTimestamp() {
+        return this.timestamp;
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object object) {
+        if (object == this) {
+            return true;
+        }
+
+        return object instanceof Transaction other && this.id == other.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.id);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "Transaction{id=" + this.id + ", sender=" + this.sender + ", receiver=" + this.receiver
+                + ", amount=" + this.amount + ", timestamp=" + this.timestamp + "}";
+    }
+}
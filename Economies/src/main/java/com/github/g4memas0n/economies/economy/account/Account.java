@@ -3,7 +3,7 @@ package com.github.g4memas0n.economies.economy.account;
 import org.jetbrains.annotations.NotNull;
 import java.math.BigDecimal;
 import java.util.UUID;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 public interface Account {
 
@@ -12,37 +12,37 @@ public interface Account {
      * The result of the future will always be not null. If any error occurs, the future will throw an
      * {@code ExecutionException}.
      *
-     * @return a {@link Future} that returns the uuid of this account.
+     * @return a {@link CompletableFuture} that returns the uuid of this account.
      */
-    @NotNull Future<UUID> getUniqueId();
+    @NotNull CompletableFuture<UUID> getUniqueId();
 
     /**
      * Gets the name of this account.<br>
      * The result of the future will always be not null. If any error occurs, the future will throw an
      * {@code ExecutionException}.
      *
-     * @return a {@link Future} that returns the name of this account.
+     * @return a {@link CompletableFuture} that returns the name of this account.
      */
-    @NotNull Future<String> getName();
+    @NotNull CompletableFuture<String> getName();
 
     /**
      * Sets the name for this account.<br>
      * If any error occurs, the future will throw an {@code ExecutionException}.
      *
      * @param name the new name for this account.
-     * @return a {@link Future} that sets the name of this account.
+     * @return a {@link CompletableFuture} that sets the name of this account.
      * @throws IllegalArgumentException if the new name is too long.
      */
-    @NotNull Future<Void> setName(@NotNull String name);
+    @NotNull CompletableFuture<Void> setName(@NotNull String name);
 
     /**
      * Gets the current balance of this account.<br>
      * The result of the future will always be not null. If any error occurs, the future will throw an
      * {@code ExecutionException}.
      *
-     * @return a {@link Future} that returns the balance of this account.
+     * @return a {@link CompletableFuture} that returns the balance of this account.
      */
-    @NotNull Future<BigDecimal> getBalance();
+    @NotNull CompletableFuture<BigDecimal> getBalance();
 
     /**
      * Checks whether the current balance of this account meets or exceeds the specified {@code amount}.<br>
@@ -50,10 +50,10 @@ public interface Account {
      * If any error occurs, the future will throw an {@code ExecutionException}.
      *
      * @param amount the amount that the balance must meet or exceed.
-     * @return a {@link Future} that returns whether this account has enough money.
+     * @return a {@link CompletableFuture} that returns whether this account has enough money.
      * @throws IllegalArgumentException if the specified {@code amount} is negative.
      */
-    @NotNull Future<Boolean> hasBalance(@NotNull BigDecimal amount);
+    @NotNull CompletableFuture<Boolean> hasBalance(@NotNull BigDecimal amount);
 
     /**
      * Sets the balance for this account to the specified {@code balance}.<br>
@@ -64,9 +64,9 @@ public interface Account {
      * </p>
      *
      * @param balance the new balance for this account.
-     * @return a {@link Future} that sets the balance for this account.
+     * @return a {@link CompletableFuture} that sets the balance for this account.
      */
-    @NotNull Future<Void> setBalance(@NotNull BigDecimal balance);
+    @NotNull CompletableFuture<Void> setBalance(@NotNull BigDecimal balance);
 
     /**
      * Deposits the specified {@code amount} onto the balance of this account.<br>
@@ -80,10 +80,10 @@ public interface Account {
      * </p>
      *
      * @param amount the amount that should be deposited.
-     * @return a {@link Future} that deposits an amount onto the balance of this account.
+     * @return a {@link CompletableFuture} that deposits an amount onto the balance of this account.
      * @throws IllegalArgumentException if the specified {@code amount} is negative or equal to zero.
      */
-    @NotNull Future<Void> depositBalance(@NotNull BigDecimal amount);
+    @NotNull CompletableFuture<Void> depositBalance(@NotNull BigDecimal amount);
 
     /**
      * Withdraws the specified {@code amount} from the balance of this account.<br>
@@ -97,10 +97,10 @@ public interface Account {
      * </p>
      *
      * @param amount the amount that should be withdrawn.
-     * @return a {@link Future} that withdraws an amount from the balance of this account.
+     * @return a {@link CompletableFuture} that withdraws an amount from the balance of this account.
      * @throws IllegalArgumentException if the specified {@code amount} is negative or equal to zero.
      */
-    @NotNull Future<Void> withdrawBalance(@NotNull BigDecimal amount);
+    @NotNull CompletableFuture<Void> withdrawBalance(@NotNull BigDecimal amount);
 
     /**
      * Transfer the specified {@code amount} from the balance of this account onto the balance of the specified
@@ -117,19 +117,19 @@ public interface Account {
      *
      * @param account the account that should receive the amount.
      * @param amount the amount that should be transferred.
-     * @return a {@link Future} that transfers an amount from this account to another account.
+     * @return a {@link CompletableFuture} that transfers an amount from this account to another account.
      * @throws IllegalArgumentException if the specified {@code account} is equal to this account.
      * @throws IllegalArgumentException if the specified {@code amount} is negative or equal to zero.
      */
-    @NotNull Future<Void> transferBalance(@NotNull Account account, @NotNull BigDecimal amount);
+    @NotNull CompletableFuture<Void> transferBalance(@NotNull Account account, @NotNull BigDecimal amount);
 
     /**
      * Checks whether this account is creditworthy.<br>
      * The result of the future will contain whether this account is allowed to overdraft its balance to a negative
      * value. If any error occurs, the future will throw an {@code ExecutionException}.
      *
-     * @return a {@link Future} that returns whether this account is creditworthy.
+     * @return a {@link CompletableFuture} that returns whether this account is creditworthy.
      */
-    @NotNull Future<Boolean> isCreditworthy();
+    @NotNull CompletableFuture<Boolean> isCreditworthy();
 
 }
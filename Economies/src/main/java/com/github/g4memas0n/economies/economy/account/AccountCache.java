@@ -0,0 +1,338 @@
+package com.github.g4memas0n.economies.economy.account;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded cache for loaded accounts with frequency-aware admission.
+ * <p>
+ *     New accounts enter a small window region. Accounts that leave the window only replace an account of the main
+ *     region if they were requested more often, which is estimated by a count-min sketch of recent requests. The main
+ *     region is split into a probation and a protected segment, so that accounts requested repeatedly are kept longer.
+ *     Accounts that were not requested for the configured time expire.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+class AccountCache {
+
+    private final Map<UUID, Node> data;
+    private final FrequencySketch sketch;
+    private final Segment window;
+    private final Segment probation;
+    private final Segment protect;
+
+    private final int maximum;
+    private final int maxWindow;
+    private final int maxProtected;
+    private final long expire;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    AccountCache(final int maximum, final long expire, @NotNull final TimeUnit unit) {
+        this.data = new HashMap<>();
+        this.sketch = new FrequencySketch(maximum);
+        this.window = new Segment();
+        this.probation = new Segment();
+        this.protect = new Segment();
+        this.maximum = maximum;
+        this.maxWindow = Math.max(1, maximum / 100);
+        this.maxProtected = (maximum - this.maxWindow) * 4 / 5;
+        this.expire = unit.toNanos(expire);
+    }
+
+    public synchronized @Nullable Account get(@NotNull final UUID uniqueId) {
+        final Node node = this.data.get(uniqueId);
+        final long now = System.nanoTime();
+
+        this.sketch.increment(uniqueId);
+
+        if (node == null) {
+            this.misses++;
+            return null;
+        }
+
+        if (now - node.access >= this.expire) {
+            evict(node);
+            this.misses++;
+            return null;
+        }
+
+        node.access = now;
+        this.hits++;
+
+        if (node.segment == this.probation) {
+            // promote accounts that were requested again after they left the window
+            this.probation.remove(node);
+            this.protect.add(node);
+
+            if (this.protect.size > this.maxProtected) {
+                final Node demoted = this.protect.head;
+
+                this.protect.remove(demoted);
+                this.probation.add(demoted);
+            }
+        } else {
+            node.segment.remove(node);
+            node.segment.add(node);
+        }
+
+        return node.value;
+    }
+
+    public synchronized boolean contains(@NotNull final UUID uniqueId) {
+        final Node node = this.data.get(uniqueId);
+
+        return node != null && System.nanoTime() - node.access < this.expire;
+    }
+
+    /**
+     * Caches the specified {@code account} if no account with the specified {@code uniqueId} is cached.
+     *
+     * @param uniqueId the unique-id of the account to cache.
+     * @param account the account to cache.
+     * @return the cached account for the specified {@code uniqueId}, which is the specified {@code account} if none was
+     *         cached yet.
+     */
+    public synchronized @NotNull Account putIfAbsent(@NotNull final UUID uniqueId, @NotNull final Account account) {
+        final long now = System.nanoTime();
+        Node node = this.data.get(uniqueId);
+
+        if (node != null) {
+            if (now - node.access < this.expire) {
+                return node.value;
+            }
+
+            evict(node);
+        }
+
+        expire(now);
+
+        node = new Node(uniqueId, account, now);
+        this.sketch.increment(uniqueId);
+        this.data.put(uniqueId, node);
+        this.window.add(node);
+
+        if (this.window.size > this.maxWindow) {
+            final Node candidate = this.window.head;
+
+            this.window.remove(candidate);
+            this.probation.add(candidate);
+
+            if (this.data.size() > this.maximum) {
+                admit(candidate);
+            }
+        }
+
+        return account;
+    }
+
+    public synchronized boolean replace(@NotNull final UUID uniqueId, @NotNull final Account previous,
+                                        @NotNull final Account account) {
+        final Node node = this.data.get(uniqueId);
+
+        if (node != null && node.value == previous) {
+            node.value = account;
+            return true;
+        }
+
+        return false;
+    }
+
+    public synchronized @Nullable Account remove(@NotNull final UUID uniqueId) {
+        final Node node = this.data.remove(uniqueId);
+
+        if (node != null) {
+            node.segment.remove(node);
+            return node.value;
+        }
+
+        return null;
+    }
+
+    /*
+     * Cache metrics:
+     */
+
+    public synchronized int size() {
+        return this.data.size();
+    }
+
+    public synchronized long getHitCount() {
+        return this.hits;
+    }
+
+    public synchronized long getMissCount() {
+        return this.misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return this.evictions;
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private void admit(@NotNull final Node candidate) {
+        final Node victim = this.probation.head;
+
+        // the candidate only replaces the victim if it was requested more often
+        if (victim != candidate && this.sketch.frequency(candidate.key) > this.sketch.frequency(victim.key)) {
+            evict(victim);
+        } else {
+            evict(candidate);
+        }
+    }
+
+    private void expire(final long now) {
+        for (final Segment segment : new Segment[]{this.window, this.probation, this.protect}) {
+            // each segment is ordered by access, so only its head needs to be checked
+            while (segment.head != null && now - segment.head.access >= this.expire) {
+                evict(segment.head);
+            }
+        }
+    }
+
+    private void evict(@NotNull final Node node) {
+        this.data.remove(node.key);
+        node.segment.remove(node);
+        this.evictions++;
+    }
+
+    private static final class Node {
+
+        private final UUID key;
+        private Account value;
+        private long access;
+
+        private Segment segment;
+        private Node previous;
+        private Node next;
+
+        private Node(@NotNull final UUID key, @NotNull final Account value, final long access) {
+            this.key = key;
+            this.value = value;
+            this.access = access;
+        }
+    }
+
+    private static final class Segment {
+
+        private Node head;
+        private Node tail;
+        private int size;
+
+        private void add(@NotNull final Node node) {
+            node.segment = this;
+            node.previous = this.tail;
+            node.next = null;
+
+            if (this.tail != null) {
+                this.tail.next = node;
+            } else {
+                this.head = node;
+            }
+
+            this.tail = node;
+            this.size++;
+        }
+
+        private void remove(@NotNull final Node node) {
+            if (node.previous != null) {
+                node.previous.next = node.next;
+            } else {
+                this.head = node.next;
+            }
+
+            if (node.next != null) {
+                node.next.previous = node.previous;
+            } else {
+                this.tail = node.previous;
+            }
+
+            node.previous = null;
+            node.next = null;
+            this.size--;
+        }
+    }
+
+    private static final class FrequencySketch {
+
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int mask;
+        private final int period;
+        private int additions;
+
+        private FrequencySketch(final int maximum) {
+            // each long holds sixteen 4-bit counters
+            final int size = Integer.highestOneBit(Math.max(maximum, 8) - 1) << 1;
+
+            this.table = new long[size];
+            this.mask = size - 1;
+            this.period = size * 10;
+        }
+
+        private int frequency(@NotNull final UUID key) {
+            final int hash = spread(key.hashCode());
+            int frequency = 15;
+
+            for (int i = 0; i < 4; i++) {
+                frequency = Math.min(frequency, (int) ((this.table[index(hash, i)] >>> offset(hash, i)) & 0xfL));
+            }
+
+            return frequency;
+        }
+
+        private void increment(@NotNull final UUID key) {
+            final int hash = spread(key.hashCode());
+
+            for (int i = 0; i < 4; i++) {
+                final int index = index(hash, i);
+                final int offset = offset(hash, i);
+
+                if (((this.table[index] >>> offset) & 0xfL) < 15) {
+                    this.table[index] += 1L << offset;
+                }
+            }
+
+            if (++this.additions >= this.period) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            // halve all counters, so that the sketch prefers recent requests
+            for (int i = 0; i < this.table.length; i++) {
+                this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+            }
+
+            this.additions /= 2;
+        }
+
+        private int index(final int hash, final int i) {
+            long value = (hash + SEEDS[i]) * SEEDS[i];
+            value += value >>> 32;
+            return (int) value & this.mask;
+        }
+
+        private static int offset(final int hash, final int i) {
+            return ((hash >>> (i << 3)) & 0xf) << 2;
+        }
+
+        private static int spread(final int hash) {
+            final int value = (hash ^ (hash >>> 17)) * 0xed5ad4bb;
+            return value ^ (value >>> 11);
+        }
+    }
+}
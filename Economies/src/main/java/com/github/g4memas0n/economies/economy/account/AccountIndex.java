@@ -0,0 +1,126 @@
+package com.github.g4memas0n.economies.economy.account;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * An in-memory, case-insensitive index of the account names.
+ * <p>
+ *     The names are kept sorted by their lower case form, so that exact lookups and prefix searches are answered from
+ *     memory. Reads are lock-free, while updates are serialized, as a name can belong to multiple accounts.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+class AccountIndex {
+
+    private final NavigableMap<String, Set<UUID>> names;
+    private final Map<UUID, String> identifiers;
+
+    AccountIndex() {
+        this.names = new ConcurrentSkipListMap<>();
+        this.identifiers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the unique-id of the account with the specified {@code name}.
+     *
+     * @param name the case-insensitive name of the account.
+     * @return the unique-id of the account, or null if no or too many accounts have the specified {@code name}.
+     */
+    public @Nullable UUID get(@NotNull final String name) {
+        final Set<UUID> accounts = this.names.get(name.toLowerCase(Locale.ROOT));
+
+        return accounts != null && accounts.size() == 1 ? accounts.iterator().next() : null;
+    }
+
+    public int count(@NotNull final String name) {
+        final Set<UUID> accounts = this.names.get(name.toLowerCase(Locale.ROOT));
+
+        return accounts != null ? accounts.size() : 0;
+    }
+
+    public @Nullable String getName(@NotNull final UUID uniqueId) {
+        return this.identifiers.get(uniqueId);
+    }
+
+    /**
+     * Searches the names of the accounts that start with the specified {@code prefix}, ignoring the case.
+     *
+     * @param prefix the prefix of the names to search.
+     * @param limit the maximum number of names to return.
+     * @return the matching names in ascending order.
+     */
+    public @NotNull List<String> search(@NotNull final String prefix, final int limit) {
+        final String lower = prefix.toLowerCase(Locale.ROOT);
+        final List<String> matches = new ArrayList<>();
+
+        // all names starting with the prefix are sorted between the prefix itself and the prefix followed by the last char
+        for (final Set<UUID> accounts : this.names.subMap(lower, true, lower + Character.MAX_VALUE, false).values()) {
+            for (final UUID uniqueId : accounts) {
+                final String name = this.identifiers.get(uniqueId);
+
+                if (name != null && matches.size() < limit) {
+                    matches.add(name);
+                }
+            }
+
+            if (matches.size() >= limit) {
+                break;
+            }
+        }
+
+        return matches;
+    }
+
+    public synchronized void put(@NotNull final UUID uniqueId, @NotNull final String name) {
+        final String previous = this.identifiers.put(uniqueId, name);
+
+        if (previous != null) {
+            unlink(uniqueId, previous);
+        }
+
+        this.names.compute(name.toLowerCase(Locale.ROOT), (key, accounts) -> {
+            final Set<UUID> updated = accounts != null ? new HashSet<>(accounts) : new HashSet<>(1);
+
+            updated.add(uniqueId);
+            return Set.copyOf(updated);
+        });
+    }
+
+    public synchronized void remove(@NotNull final UUID uniqueId) {
+        final String previous = this.identifiers.remove(uniqueId);
+
+        if (previous != null) {
+            unlink(uniqueId, previous);
+        }
+    }
+
+    public int size() {
+        return this.identifiers.size();
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private void unlink(@NotNull final UUID uniqueId, @NotNull final String name) {
+        this.names.computeIfPresent(name.toLowerCase(Locale.ROOT), (key, accounts) -> {
+            final Set<UUID> updated = new HashSet<>(accounts);
+
+            updated.remove(uniqueId);
+            return updated.isEmpty() ? null : Set.copyOf(updated);
+        });
+    }
+}
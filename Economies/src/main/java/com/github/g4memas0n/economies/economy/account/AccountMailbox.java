@@ -0,0 +1,286 @@
+package com.github.g4memas0n.economies.economy.account;
+
+import com.github.g4memas0n.economies.economy.EconomyException;
+import com.github.g4memas0n.economies.economy.NotEnoughMoneyException;
+import com.github.g4memas0n.economies.storage.AccountStorage;
+import com.github.g4memas0n.economies.storage.InsufficientBalanceException;
+import com.github.g4memas0n.economies.storage.StorageException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The mailbox of a cached account, that runs the balance changes of the account one after another.
+ * <p>
+ *     Balance changes are queued in the mailbox and run in their submission order on the economy executor, so that
+ *     changes of the same account never wait for each other's row locks, while changes of different accounts still run
+ *     in parallel. Consecutive deposits or withdrawals that are queued at the same time are merged into a single storage
+ *     operation, that still writes a transaction for each change. If a merged operation fails, its changes will be
+ *     run one by one, so that each change still fails or succeeds on its own.
+ * </p>
+ * <p>
+ *     Mailboxes are registered by the unique id of their account and outlive the cached account, so that an account
+ *     that is cached again while its changes are still queued continues with the same mailbox. A mailbox unregisters
+ *     itself once its queue is empty, and forwards later changes to the mailbox that is registered at that time.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+class AccountMailbox {
+
+    private static final int BATCH = 64;
+
+    private final Map<UUID, AccountMailbox> mailboxes;
+    private final Deque<Operation> queue;
+    private final Executor executor;
+    private final LongAdder merged;
+    private final UUID uniqueId;
+
+    private boolean scheduled;
+    private boolean retired;
+
+    private AccountMailbox(@NotNull final Map<UUID, AccountMailbox> mailboxes, @NotNull final UUID uniqueId,
+                           @NotNull final Executor executor, @NotNull final LongAdder merged) {
+        this.mailboxes = mailboxes;
+        this.queue = new ArrayDeque<>();
+        this.executor = executor;
+        this.merged = merged;
+        this.uniqueId = uniqueId;
+    }
+
+    /**
+     * Returns the registered mailbox of the account with the specified {@code uniqueId}, or registers a new one.
+     *
+     * @param mailboxes the registered mailboxes, mapped by the unique ids of their accounts.
+     * @param uniqueId the unique id of the account.
+     * @param executor the executor that runs the balance changes.
+     * @param merged the counter of merged balance changes.
+     * @return the registered mailbox of the account.
+     */
+    static @NotNull AccountMailbox get(@NotNull final Map<UUID, AccountMailbox> mailboxes, @NotNull final UUID uniqueId,
+                                       @NotNull final Executor executor, @NotNull final LongAdder merged) {
+        return mailboxes.computeIfAbsent(uniqueId, key -> new AccountMailbox(mailboxes, key, executor, merged));
+    }
+
+    public @NotNull CompletableFuture<Void> deposit(@NotNull final AccountStorage storage,
+                                                    @NotNull final BigDecimal amount, final boolean negative) {
+        return submit(new Operation(Kind.DEPOSIT, storage, null, amount, negative));
+    }
+
+    public @NotNull CompletableFuture<Void> withdraw(@NotNull final AccountStorage storage,
+                                                     @NotNull final BigDecimal amount, final boolean negative) {
+        return submit(new Operation(Kind.WITHDRAW, storage, null, amount, negative));
+    }
+
+    public @NotNull CompletableFuture<Void> transfer(@NotNull final AccountStorage storage,
+                                                     @NotNull final AccountStorage receiver,
+                                                     @NotNull final BigDecimal amount, final boolean negative) {
+        return submit(new Operation(Kind.TRANSFER, storage, receiver, amount, negative));
+    }
+
+    public @NotNull CompletableFuture<Void> set(@NotNull final AccountStorage storage,
+                                                @NotNull final BigDecimal balance) {
+        return submit(new Operation(Kind.SET, storage, null, balance, true));
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private @NotNull CompletableFuture<Void> submit(@NotNull final Operation operation) {
+        final boolean forward;
+
+        synchronized (this.queue) {
+            if (this.retired) {
+                forward = true;
+            } else {
+                this.queue.add(operation);
+
+                if (this.scheduled) {
+                    return operation.future;
+                }
+
+                this.scheduled = true;
+                forward = false;
+            }
+        }
+
+        if (forward) {
+            // the mailbox is no longer registered, so the change must run in order with the registered mailbox
+            return get(this.mailboxes, this.uniqueId, this.executor, this.merged).submit(operation);
+        }
+
+        try {
+            this.executor.execute(this::drain);
+        } catch (RuntimeException ex) {
+            // the executor is shut down, so none of the queued changes will run
+            synchronized (this.queue) {
+                Operation queued;
+
+                while ((queued = this.queue.poll()) != null) {
+                    queued.future.completeExceptionally(ex);
+                }
+
+                retire();
+            }
+        }
+
+        return operation.future;
+    }
+
+    private void drain() {
+        final List<Operation> batch = new ArrayList<>();
+
+        while (true) {
+            synchronized (this.queue) {
+                while (batch.size() < BATCH && !this.queue.isEmpty()) {
+                    batch.add(this.queue.poll());
+                }
+            }
+
+            int index = 0;
+
+            while (index < batch.size()) {
+                final Operation first = batch.get(index);
+                int end = index + 1;
+
+                // only consecutive deposits or withdrawals with the same overdraft rule can be merged
+                while (end < batch.size() && first.isMergeable(batch.get(end))) {
+                    end++;
+                }
+
+                if (end - index > 1) {
+                    run(batch.subList(index, end));
+                } else {
+                    run(first);
+                }
+
+                index = end;
+            }
+
+            batch.clear();
+
+            synchronized (this.queue) {
+                if (this.queue.isEmpty()) {
+                    retire();
+                    return;
+                }
+            }
+
+            try {
+                // continue with a new task, so that a busy account does not hold on to an executor thread
+                this.executor.execute(this::drain);
+                return;
+            } catch (RejectedExecutionException ignored) {
+                // the executor is shutting down, so the queued changes will be finished by this task
+            }
+        }
+    }
+
+    private void run(@NotNull final List<Operation> operations) {
+        final Operation first = operations.get(0);
+        final List<BigDecimal> amounts = new ArrayList<>(operations.size());
+
+        for (final Operation operation : operations) {
+            amounts.add(operation.amount);
+        }
+
+        try {
+            // the changes are merged into one balance update, but each of them still writes its own transaction
+            if (first.kind == Kind.DEPOSIT) {
+                first.storage.depositBalances(amounts, first.negative);
+            } else {
+                first.storage.withdrawBalances(amounts, first.negative);
+            }
+        } catch (StorageException ex) {
+            // the merged change failed, so find out which of the changes fail on their own
+            for (final Operation operation : operations) {
+                run(operation);
+            }
+            return;
+        } catch (RuntimeException ex) {
+            for (final Operation operation : operations) {
+                operation.future.completeExceptionally(ex);
+            }
+            return;
+        }
+
+        this.merged.add(operations.size() - 1);
+
+        for (final Operation operation : operations) {
+            operation.future.complete(null);
+        }
+    }
+
+    private void run(@NotNull final Operation operation) {
+        try {
+            switch (operation.kind) {
+                case DEPOSIT -> operation.storage.depositBalance(operation.amount, operation.negative);
+                case WITHDRAW -> operation.storage.withdrawBalance(operation.amount, operation.negative);
+                case TRANSFER -> operation.storage.transferBalance(operation.receiver, operation.amount,
+                        operation.negative);
+                case SET -> operation.storage.setBalance(operation.amount);
+            }
+
+            operation.future.complete(null);
+        } catch (InsufficientBalanceException ex) {
+            // the storage refused the change as the new balance would be negative
+            operation.future.completeExceptionally(new NotEnoughMoneyException(ex.getAmount()));
+        } catch (StorageException ex) {
+            operation.future.completeExceptionally(new EconomyException("", ex));
+        } catch (RuntimeException ex) {
+            operation.future.completeExceptionally(ex);
+        }
+    }
+
+    private void retire() {
+        // must be called while holding the lock of the queue, so that no change gets queued after it
+        this.scheduled = false;
+        this.retired = true;
+        this.mailboxes.remove(this.uniqueId, this);
+    }
+
+    private enum Kind {
+        DEPOSIT,
+        WITHDRAW,
+        TRANSFER,
+        SET
+    }
+
+    private static final class Operation {
+
+        private final CompletableFuture<Void> future;
+        private final Kind kind;
+        private final AccountStorage storage;
+        private final AccountStorage receiver;
+        private final BigDecimal amount;
+        private final boolean negative;
+
+        private Operation(@NotNull final Kind kind, @NotNull final AccountStorage storage,
+                          @Nullable final AccountStorage receiver, @NotNull final BigDecimal amount,
+                          final boolean negative) {
+            this.future = new CompletableFuture<>();
+            this.kind = kind;
+            this.storage = storage;
+            this.receiver = receiver;
+            this.amount = amount;
+            this.negative = negative;
+        }
+
+        private boolean isMergeable(@NotNull final Operation operation) {
+            return (this.kind == Kind.DEPOSIT || this.kind == Kind.WITHDRAW) && this.kind == operation.kind
+                    && this.negative == operation.negative && this.storage == operation.storage;
+        }
+    }
+}
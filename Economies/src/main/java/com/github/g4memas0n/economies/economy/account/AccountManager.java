@@ -2,7 +2,11 @@ package com.github.g4memas0n.economies.economy.account;
 
 import com.github.g4memas0n.economies.Economies;
 import com.github.g4memas0n.economies.economy.EconomyException;
+import com.github.g4memas0n.economies.economy.Leaderboard;
+import com.github.g4memas0n.economies.economy.NotEnoughMoneyException;
+import com.github.g4memas0n.economies.economy.Transaction;
 import com.github.g4memas0n.economies.storage.AccountStorage;
+import com.github.g4memas0n.economies.storage.InsufficientBalanceException;
 import com.github.g4memas0n.economies.storage.StorageException;
 import com.github.g4memas0n.economies.storage.StorageManager;
 import com.google.common.base.Preconditions;
@@ -10,41 +14,89 @@ import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
-import java.lang.ref.SoftReference;
-import java.util.Locale;
+import org.jetbrains.annotations.Nullable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 
 public class AccountManager implements AccountProvider {
 
-    private final Map<UUID, SoftReference<Account>> cache;
-    private final Map<String, UUID> mappings;
+    private final AccountCache cache;
+    private final AccountIndex index;
+    private final AccountProvisioner provisioner;
+    private final Leaderboard leaderboard;
     private final StorageManager storage;
-
-    public AccountManager(@NotNull final StorageManager storage) {
-        this.cache = new ConcurrentHashMap<>();
-        this.mappings = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final Executor mainThread;
+    private final Map<UUID, AccountMailbox> mailboxes;
+    private final LongAdder merged;
+
+    public AccountManager(@NotNull final StorageManager storage, @NotNull final Executor executor,
+                          @NotNull final Executor mainThread, final int size, final int expire, final int window,
+                          final boolean mailboxes) {
+        this.cache = new AccountCache(size, expire, TimeUnit.MINUTES);
+        this.index = new AccountIndex();
+        this.provisioner = new AccountProvisioner(this, storage, window);
+        this.leaderboard = new Leaderboard();
         this.storage = storage;
+        this.executor = executor;
+        this.mainThread = mainThread;
+        this.mailboxes = mailboxes ? new ConcurrentHashMap<>() : null;
+        this.merged = new LongAdder();
+    }
+
+    public void initialize(@NotNull final Economies plugin) throws StorageException {
+        BankAccount.global = new BankAccount(this.storage.getGlobal(), plugin, this.executor);
+
+        // build the name index with a single query, it will be kept up to date afterwards
+        this.storage.forEachAccount(this.index::put);
+        Economies.debug("Indexed names of %d accounts", this.index.size());
+
+        // rebuild the leaderboard with a single query, the storage keeps it up to date afterwards
+        this.storage.setLeaderboard(this.leaderboard);
+        this.storage.forEachBalance(this.leaderboard::set);
+        Economies.debug("Ranked balances of %d accounts", this.leaderboard.size());
+    }
+
+    public void shutdown() {
+        // provide the accounts of the last joined players, before the storage gets released
+        this.provisioner.stop();
     }
 
     @Override
-    public @NotNull Future<Account> getAccount(@NotNull final String name) {
+    public @NotNull Executor getMainThreadExecutor() {
+        return this.mainThread;
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Account> getAccount(@NotNull final String name) {
         Preconditions.checkArgument(!name.isBlank(), "empty or blank name");
-        final UUID uniqueId = this.mappings.get(name.toLowerCase(Locale.ROOT));
+        final UUID uniqueId = this.index.get(name);
 
         if (uniqueId != null) {
             return getAccount(uniqueId);
         }
 
+        if (this.index.count(name) > 1) {
+            return CompletableFuture.failedFuture(new AccountNotFoundException(name));
+        }
+
         return CompletableFuture.supplyAsync(() -> {
             AccountStorage storage;
             UUID uuid;
 
             try {
+                // the account may have been created by another server that shares the database
                 storage = this.storage.getAccount(name);
 
                 if (storage == null) {
@@ -52,35 +104,30 @@ public class AccountManager implements AccountProvider {
                 }
 
                 uuid = storage.getUniqueId();
+                this.index.put(uuid, storage.getName());
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
 
-            SoftReference<Account> reference = this.cache.get(uuid);
-            Account account = reference != null ? reference.get() : null;
+            Account account = this.cache.get(uuid);
 
             // check if we might have already a cached account, if not cache it.
             if (account == null) {
                 OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
 
-                account = new PlayerAccount(storage, player);
-                reference = new SoftReference<>(account);
-
-                this.cache.put(uuid, reference);
+                account = this.cache.putIfAbsent(uuid, create(storage, player));
             }
 
-            this.mappings.put(name.toLowerCase(Locale.ROOT), uuid);
             return account;
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Account> getAccount(@NotNull final UUID uniqueId) {
+    public @NotNull CompletableFuture<Account> getAccount(@NotNull final UUID uniqueId) {
         Preconditions.checkArgument(uniqueId.version() == 4, "illegal uuid version");
 
         return CompletableFuture.supplyAsync(() -> {
-            SoftReference<Account> reference = this.cache.get(uniqueId);
-            Account account = reference != null ? reference.get() : null;
+            Account account = this.cache.get(uniqueId);
 
             if (account == null) {
                 AccountStorage storage;
@@ -97,24 +144,72 @@ public class AccountManager implements AccountProvider {
 
                 OfflinePlayer player = Bukkit.getOfflinePlayer(uniqueId);
 
-                account = new PlayerAccount(storage, player);
-                reference = new SoftReference<>(account);
-
                 // cache loaded account
-                this.cache.put(uniqueId, reference);
+                account = this.cache.putIfAbsent(uniqueId, create(storage, player));
             }
 
             return account;
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Account> getAccount(@NotNull final OfflinePlayer player) {
+    public @NotNull CompletableFuture<Map<UUID, Account>> getAccounts(@NotNull final Collection<UUID> uniqueIds) {
+        for (final UUID uniqueId : uniqueIds) {
+            Preconditions.checkArgument(uniqueId.version() == 4, "illegal uuid version");
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            final Map<UUID, Account> accounts = new HashMap<>();
+            final List<UUID> missing = new ArrayList<>();
+
+            for (final UUID uniqueId : uniqueIds) {
+                Account account = this.cache.get(uniqueId);
+
+                if (account != null) {
+                    accounts.put(uniqueId, account);
+                } else {
+                    missing.add(uniqueId);
+                }
+            }
+
+            if (missing.isEmpty()) {
+                return accounts;
+            }
+
+            Map<UUID, AccountStorage> storages;
+
+            try {
+                // resolve all cache misses at once instead of one query per account
+                storages = this.storage.getAccounts(missing);
+            } catch (StorageException ex) {
+                throw new EconomyException("", ex);
+            }
+
+            for (final Map.Entry<UUID, AccountStorage> entry : storages.entrySet()) {
+                OfflinePlayer player = Bukkit.getOfflinePlayer(entry.getKey());
+
+                // cache loaded account, unless it got cached in the meantime
+                accounts.put(entry.getKey(), this.cache.putIfAbsent(entry.getKey(),
+                        create(entry.getValue(), player)));
+            }
+
+            return accounts;
+        }, this.executor);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Account> getAccount(@NotNull final OfflinePlayer player) {
         Preconditions.checkArgument(player.getUniqueId().version() == 4, "illegal offline uuid");
+        final CompletableFuture<Void> provision = this.provisioner.getPending(player.getUniqueId());
+
+        if (provision != null) {
+            // wait for the account of the joining player, instead of creating it separately
+            return provision.handle((ignored, ex) -> null)
+                    .thenCompose(ignored -> getAccount(player));
+        }
 
         return CompletableFuture.supplyAsync(() -> {
-            SoftReference<Account> reference = this.cache.get(player.getUniqueId());
-            Account account = reference != null ? reference.get() : null;
+            Account account = this.cache.get(player.getUniqueId());
 
             if (account == null) {
                 final Player online = player.getPlayer();
@@ -125,7 +220,10 @@ public class AccountManager implements AccountProvider {
 
                     if (storage == null && online != null) {
                         // create account if player is currently online and retry query
-                        this.storage.createAccount(player.getUniqueId(), online.getName());
+                        if (this.storage.createAccount(player.getUniqueId(), online.getName())) {
+                            this.index.put(player.getUniqueId(), online.getName());
+                        }
+
                         storage = this.storage.getAccount(player.getUniqueId());
                     }
                 } catch (StorageException ex) {
@@ -136,24 +234,40 @@ public class AccountManager implements AccountProvider {
                     throw new AccountNotFoundException(player);
                 }
 
-                account = new PlayerAccount(storage, player);
-                reference = new SoftReference<>(account);
-
                 // put account into cache
-                this.cache.put(player.getUniqueId(), reference);
+                account = this.cache.putIfAbsent(player.getUniqueId(), create(storage, player));
             }
 
             return account;
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Boolean> hasAccount(@NotNull final String name) {
+    public @NotNull List<Leaderboard.Entry> getTopBalances(final int limit) {
+        Preconditions.checkArgument(limit > 0 && limit <= 100, "illegal limit");
+
+        return this.leaderboard.getTop(limit);
+    }
+
+    @Override
+    public int getRank(@NotNull final UUID uniqueId) {
+        return this.leaderboard.getRank(uniqueId);
+    }
+
+    @Override
+    public @NotNull List<String> searchAccounts(@NotNull final String prefix, final int limit) {
+        Preconditions.checkArgument(limit > 0, "illegal limit");
+
+        return this.index.search(prefix, limit);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Boolean> hasAccount(@NotNull final String name) {
         Preconditions.checkArgument(!name.isBlank(), "empty or blank name");
-        final UUID uniqueId = this.mappings.get(name.toLowerCase(Locale.ROOT));
+        final int count = this.index.count(name);
 
-        if (uniqueId != null) {
-            return hasAccount(uniqueId);
+        if (count > 0) {
+            return CompletableFuture.completedFuture(count == 1);
         }
 
         return CompletableFuture.supplyAsync(() -> {
@@ -162,16 +276,15 @@ public class AccountManager implements AccountProvider {
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Boolean> hasAccount(@NotNull final UUID uniqueId) {
+    public @NotNull CompletableFuture<Boolean> hasAccount(@NotNull final UUID uniqueId) {
         Preconditions.checkArgument(uniqueId.version() == 4, "illegal uuid version");
 
         return CompletableFuture.supplyAsync(() -> {
-            SoftReference<Account> reference = this.cache.get(uniqueId);
-            if (reference != null && reference.get() != null) {
+            if (this.cache.contains(uniqueId)) {
                 return true;
             }
 
@@ -180,16 +293,15 @@ public class AccountManager implements AccountProvider {
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Boolean> hasAccount(@NotNull final OfflinePlayer player) {
+    public @NotNull CompletableFuture<Boolean> hasAccount(@NotNull final OfflinePlayer player) {
         Preconditions.checkArgument(player.getUniqueId().version() == 4, "illegal offline uuid");
 
         return CompletableFuture.supplyAsync(() -> {
-            SoftReference<Account> reference = this.cache.get(player.getUniqueId());
-            if (reference != null && reference.get() != null) {
+            if (this.cache.contains(player.getUniqueId())) {
                 return true;
             }
 
@@ -199,11 +311,11 @@ public class AccountManager implements AccountProvider {
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Boolean> createAccount(@NotNull final OfflinePlayer player) {
+    public @NotNull CompletableFuture<Boolean> createAccount(@NotNull final OfflinePlayer player) {
         Preconditions.checkArgument(player.getUniqueId().version() == 4, "illegal offline uuid");
         final String name = player.getName();
 
@@ -213,67 +325,129 @@ public class AccountManager implements AccountProvider {
 
         return CompletableFuture.supplyAsync(() -> {
             try {
-                return this.storage.createAccount(player.getUniqueId(), name);
+                if (this.storage.createAccount(player.getUniqueId(), name)) {
+                    this.index.put(player.getUniqueId(), name);
+                    return true;
+                }
+
+                return false;
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Boolean> deleteAccount(@NotNull final OfflinePlayer player) {
+    public @NotNull CompletableFuture<Boolean> deleteAccount(@NotNull final OfflinePlayer player) {
         Preconditions.checkArgument(player.getUniqueId().version() == 4, "illegal offline uuid");
 
         return CompletableFuture.supplyAsync(() -> {
             try {
-                SoftReference<Account> reference = this.cache.remove(player.getUniqueId());
-                if (reference != null && reference.get() != null) {
+                if (this.cache.remove(player.getUniqueId()) != null) {
                     Economies.debug("Invalidated cached account for uuid: %s", player.getUniqueId());
                 }
 
+                this.index.remove(player.getUniqueId());
                 return this.storage.deleteAccount(player.getUniqueId());
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, Boolean>> depositBalances(@NotNull final Map<UUID, BigDecimal> amounts) {
+        for (final Map.Entry<UUID, BigDecimal> entry : amounts.entrySet()) {
+            Preconditions.checkArgument(entry.getKey().version() == 4, "illegal uuid version");
+
+            if (entry.getValue().signum() <= 0) {
+                throw new IllegalArgumentException("amount must be greater than zero");
+            }
+        }
+
+        final Map<UUID, BigDecimal> copy = Map.copyOf(amounts);
+
+        return BankAccount.get().isCreditworthy().thenApplyAsync(creditworthy -> {
+            try {
+                return this.storage.depositBalances(copy, creditworthy);
+            } catch (InsufficientBalanceException ex) {
+                // the storage refused the deposits as the new bank balance would be negative
+                throw new NotEnoughMoneyException(ex.getAmount());
+            } catch (StorageException ex) {
+                throw new EconomyException("", ex);
+            }
+        }, this.executor);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<List<Transaction>> getTransactions(@NotNull final UUID uniqueId, @Nullable final Transaction after,
+                                                             final int limit) {
+        Preconditions.checkArgument(uniqueId.version() == 4, "illegal uuid version");
+        Preconditions.checkArgument(limit > 0 && limit <= 100, "illegal limit");
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return this.storage.getTransactions(uniqueId, after, limit);
+            } catch (StorageException ex) {
+                throw new EconomyException("", ex);
+            }
+        }, this.executor);
     }
 
     /*
      * cache validation and invalidation
      */
 
-    public @NotNull Future<Void> validate(@NotNull final Player player) {
-        return CompletableFuture.runAsync(() -> {
-            this.mappings.remove(player.getName().toLowerCase(Locale.ROOT));
-            this.cache.computeIfPresent(player.getUniqueId(), (uuid, reference) -> {
-                Account value;
-
-                if ((value = reference.get()) != null) {
-                    if (value instanceof PlayerAccount account) {
-                        // only update the reference if it points to an invalid player instance
-                        if (account.player != player) {
-                            value = new PlayerAccount(account.storage, player);
-                            reference = new SoftReference<>(value);
-                        }
+    /**
+     * Validates the account of the specified joining {@code player}.
+     * <p>
+     *     The account will be created or renamed together with the accounts of other joining players and cached
+     *     afterwards.
+     * </p>
+     *
+     * @param player the player that joined.
+     * @return the future that completes when the account of the player was provided.
+     */
+    public @NotNull CompletableFuture<Void> validate(@NotNull final Player player) {
+        return this.provisioner.submit(player);
+    }
 
-                        Economies.debug("Validated cached account for uuid: %s", player.getUniqueId());
-                        return reference;
-                    } else {
-                        Economies.log(Level.SEVERE, "Invalidated unknown/illegal cached account for uuid: %s", player.getUniqueId());
-                    }
-                }
+    void provided(@NotNull final Player player, @NotNull final AccountStorage storage) {
+        final String name = this.index.getName(player.getUniqueId());
 
-                return null;
-            });
-        });
+        if (!player.getName().equals(name)) {
+            this.index.put(player.getUniqueId(), player.getName());
+
+            if (name != null) {
+                Economies.debug("Renamed account for uuid %s from %s to %s", player.getUniqueId(), name, player.getName());
+            }
+        }
+
+        final Account value = this.cache.get(player.getUniqueId());
+
+        if (value == null) {
+            // warm the cache, as the account of a joining player will be used soon
+            this.cache.putIfAbsent(player.getUniqueId(), create(storage, player));
+        } else if (value instanceof PlayerAccount account) {
+            // only update the cached account if it points to an invalid player instance
+            if (account.player != player) {
+                // keep the mailbox, so that the queued balance changes of the account stay in order
+                this.cache.replace(player.getUniqueId(), value,
+                        new PlayerAccount(account.storage, player, this.executor, account.mailbox));
+            }
+
+            Economies.debug("Validated cached account for uuid: %s", player.getUniqueId());
+        } else {
+            this.cache.remove(player.getUniqueId());
+            Economies.log(Level.SEVERE, "Invalidated unknown/illegal cached account for uuid: %s", player.getUniqueId());
+        }
     }
 
-    public @NotNull Future<Void> invalidate(@NotNull final Player player) {
+    public @NotNull CompletableFuture<Void> invalidate(@NotNull final Player player) {
         return CompletableFuture.runAsync(() -> {
-            SoftReference<Account> reference = this.cache.remove(player.getUniqueId());
-            Account value;
+            final Account value = this.cache.remove(player.getUniqueId());
 
-            if (reference != null && (value = reference.get()) != null) {
+            if (value != null) {
                 if (!(value instanceof PlayerAccount)) {
                     Economies.log(Level.SEVERE, "Invalidated unknown/illegal cached account for uuid: %s", player.getUniqueId());
                     return;
@@ -281,6 +455,46 @@ public class AccountManager implements AccountProvider {
 
                 Economies.debug("Invalidated cached account for uuid: %s", player.getUniqueId());
             }
-        });
+        }, this.executor);
+    }
+
+    /*
+     * cache metrics:
+     */
+
+    public int getCacheSize() {
+        return this.cache.size();
+    }
+
+    public long getCacheHits() {
+        return this.cache.getHitCount();
+    }
+
+    public long getCacheMisses() {
+        return this.cache.getMissCount();
+    }
+
+    public long getCacheEvictions() {
+        return this.cache.getEvictionCount();
+    }
+
+    /**
+     * Returns the number of balance changes that were merged into the storage operation of a preceding change.
+     * @return the number of merged balance changes.
+     */
+    public long getMergedCount() {
+        return this.merged.sum();
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private @NotNull PlayerAccount create(@NotNull final AccountStorage storage, @NotNull final OfflinePlayer player) {
+        // the mailbox is shared with evicted instances of the account, so that its queued balance changes stay in order
+        final AccountMailbox mailbox = this.mailboxes != null
+                ? AccountMailbox.get(this.mailboxes, player.getUniqueId(), this.executor, this.merged) : null;
+
+        return new PlayerAccount(storage, player, this.executor, mailbox);
     }
 }
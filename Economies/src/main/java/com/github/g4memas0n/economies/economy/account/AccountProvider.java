@@ -1,22 +1,43 @@
 package com.github.g4memas0n.economies.economy.account;
 
+import com.github.g4memas0n.economies.economy.Leaderboard;
+import com.github.g4memas0n.economies.economy.Transaction;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public interface AccountProvider {
 
+    /**
+     * Gets the executor that runs continuations on the main thread of the server.<br>
+     * All continuations that complete within a tick will run together in one batch on the next tick, so results can be
+     * chained into game logic without blocking a thread or scheduling a task per result:
+     * <pre>{@code
+     * provider.getAccount(player).thenCompose(account -> account.getBalance())
+     *         .thenAcceptAsync(balance -> player.sendMessage(balance.toPlainString()), provider.getMainThreadExecutor());
+     * }</pre>
+     *
+     * @return the executor that runs continuations on the main thread.
+     */
+    @NotNull Executor getMainThreadExecutor();
+
     /**
      * Gets the account for the specified {@code name}.<br>
      * The result of the future may be null, if no or too many accounts for the specified {@code name} could be found.
      * If any error occurs, the future will throw an {@code ExecutionException}.
      *
      * @param name the name of the account to get.
-     * @return a {@link Future} that returns the account for the specified {@code name} if it exists.
+     * @return a {@link CompletableFuture} that returns the account for the specified {@code name} if it exists.
      * @throws IllegalArgumentException if the name is empty or blank.
      */
-    @NotNull Future<Account> getAccount(@NotNull String name);
+    @NotNull CompletableFuture<Account> getAccount(@NotNull String name);
 
     /**
      * Gets the account with the specified {@code uniqueId}.<br>
@@ -24,10 +45,25 @@ public interface AccountProvider {
      * If any error occurs, the future will throw an {@code ExecutionException}.
      *
      * @param uniqueId the unique-id of the account to get.
-     * @return a {@link Future} that returns the account with the specified {@code uniqueId} if it exists.
+     * @return a {@link CompletableFuture} that returns the account with the specified {@code uniqueId} if it exists.
      * @throws IllegalArgumentException if the uuid version is illegal.
      */
-    @NotNull Future<Account> getAccount(@NotNull UUID uniqueId);
+    @NotNull CompletableFuture<Account> getAccount(@NotNull UUID uniqueId);
+
+    /**
+     * Gets the accounts with the specified {@code uniqueIds}.<br>
+     * The result of the future will always be not null, but will not contain the unique-ids for which no account could
+     * be found. If any error occurs, the future will throw an {@code ExecutionException}.
+     * <p>
+     *     Note: This method resolves all accounts that are not cached with as few queries as possible and should be
+     *     preferred over multiple calls of {@link #getAccount(UUID)}.
+     * </p>
+     *
+     * @param uniqueIds the unique-ids of the accounts to get.
+     * @return a {@link CompletableFuture} that returns the existing accounts mapped by their unique-id.
+     * @throws IllegalArgumentException if any uuid version is illegal.
+     */
+    @NotNull CompletableFuture<Map<UUID, Account>> getAccounts(@NotNull Collection<UUID> uniqueIds);
 
     /**
      * Gets the account for the specified {@code player}.<br>
@@ -39,10 +75,44 @@ public interface AccountProvider {
      * </p>
      *
      * @param player the player of the account to get.
-     * @return a {@link Future} that returns the account for the specified {@code player} if it exists.
+     * @return a {@link CompletableFuture} that returns the account for the specified {@code player} if it exists.
      * @throws IllegalArgumentException if the offline player object has an offline uuid.
      */
-    @NotNull Future<Account> getAccount(@NotNull OfflinePlayer player);
+    @NotNull CompletableFuture<Account> getAccount(@NotNull OfflinePlayer player);
+
+    /**
+     * Gets the accounts with the highest balances, ordered from the highest to the lowest balance.<br>
+     * The balances are ranked in memory without querying the storage, so this method can be called on the main thread.
+     * <p>
+     *     Note: Accounts whose balance has never been used are not ranked.
+     * </p>
+     *
+     * @param limit the maximum number of accounts to get.
+     * @return the leaderboard entries of the accounts with the highest balances.
+     * @throws IllegalArgumentException if the specified {@code limit} is not between one and one hundred.
+     */
+    @NotNull List<Leaderboard.Entry> getTopBalances(int limit);
+
+    /**
+     * Gets the rank of the account with the specified {@code uniqueId} on the balance leaderboard.<br>
+     * The rank is computed in memory without querying the storage, so this method can be called on the main thread.
+     *
+     * @param uniqueId the unique-id of the account.
+     * @return the rank of the account starting with one, or zero if the account is not ranked.
+     */
+    int getRank(@NotNull UUID uniqueId);
+
+    /**
+     * Searches the names of the accounts that start with the specified {@code prefix}, ignoring the case.<br>
+     * The names are searched in memory without querying the storage, so this method can be called on the main thread,
+     * for example to tab-complete account names.
+     *
+     * @param prefix the prefix of the names to search, may be empty to get any names.
+     * @param limit the maximum number of names to return.
+     * @return the matching names in ascending order.
+     * @throws IllegalArgumentException if the specified {@code limit} is not greater than zero.
+     */
+    @NotNull List<String> searchAccounts(@NotNull String prefix, int limit);
 
     /**
      * Checks whether an account for specified {@code name} exists.<br>
@@ -50,10 +120,10 @@ public interface AccountProvider {
      * If any error occurs, the future will throw an {@code ExecutionException}.
      *
      * @param name the name of the account to check.
-     * @return a {@link Future} that returns whether the account exists.
+     * @return a {@link CompletableFuture} that returns whether the account exists.
      * @throws IllegalArgumentException if the name is empty or blank.
      */
-    @NotNull Future<Boolean> hasAccount(@NotNull String name);
+    @NotNull CompletableFuture<Boolean> hasAccount(@NotNull String name);
 
     /**
      * Checks whether an account with specified {@code uniqueId} exists.<br>
@@ -61,10 +131,10 @@ public interface AccountProvider {
      * If any error occurs, the future will throw an {@code ExecutionException}.
      *
      * @param uniqueId the unique-id of the account to get.
-     * @return a {@link Future} that returns whether the account exists.
+     * @return a {@link CompletableFuture} that returns whether the account exists.
      * @throws IllegalArgumentException if the uuid version is illegal.
      */
-    @NotNull Future<Boolean> hasAccount(@NotNull UUID uniqueId);
+    @NotNull CompletableFuture<Boolean> hasAccount(@NotNull UUID uniqueId);
 
     /**
      * Checks whether an account for specified {@code player} exists.<br>
@@ -72,10 +142,10 @@ public interface AccountProvider {
      * If any error occurs, the future will throw an {@code ExecutionException}.
      *
      * @param player the player of the account to check.
-     * @return a {@link Future} that returns whether the account exists.
+     * @return a {@link CompletableFuture} that returns whether the account exists.
      * @throws IllegalArgumentException if the offline player object has an offline uuid.
      */
-    @NotNull Future<Boolean> hasAccount(@NotNull OfflinePlayer player);
+    @NotNull CompletableFuture<Boolean> hasAccount(@NotNull OfflinePlayer player);
 
     /**
      * Creates a new account for the specified {@code player} if it not already exists.<br>
@@ -83,11 +153,11 @@ public interface AccountProvider {
      * error occurs, the future will throw an {@code ExecutionException}.
      *
      * @param player the player of the account to create.
-     * @return a {@link Future} that returns whether the account was created.
+     * @return a {@link CompletableFuture} that returns whether the account was created.
      * @throws IllegalArgumentException if the offline player object has an offline uuid.
      * @throws IllegalArgumentException if the offline player object has no name.
      */
-    @NotNull Future<Boolean> createAccount(@NotNull OfflinePlayer player);
+    @NotNull CompletableFuture<Boolean> createAccount(@NotNull OfflinePlayer player);
 
     /**
      * Deletes the account for the specified {@code player} if it exists.<br>
@@ -95,9 +165,44 @@ public interface AccountProvider {
      * error occurs, the future will throw an {@code ExecutionException}.
      *
      * @param player the player of the account to delete.
-     * @return a {@link Future} that returns whether the account was deleted.
+     * @return a {@link CompletableFuture} that returns whether the account was deleted.
      * @throws IllegalArgumentException if the offline player object has an offline uuid.
      */
-    @NotNull Future<Boolean> deleteAccount(@NotNull OfflinePlayer player);
+    @NotNull CompletableFuture<Boolean> deleteAccount(@NotNull OfflinePlayer player);
+
+    /**
+     * Deposits the specified amounts onto the accounts with the mapped {@code uniqueIds} in one set-based operation.<br>
+     * The result of the future will contain for each unique-id whether the amount was deposited, which is only not the
+     * case if no account with the unique-id exists. If any error occurs, the future will throw an
+     * {@code ExecutionException}.
+     * <p>
+     *     Note: The global bank account is debited once for the total of all deposits. If it is not creditworthy and its
+     *     balance does not cover the total, none of the amounts will be deposited.
+     * </p>
+     *
+     * @param amounts the amounts to deposit mapped by the unique-id of the receiving account.
+     * @return a {@link CompletableFuture} that returns whether the amount was deposited for each unique-id.
+     * @throws IllegalArgumentException if any uuid version is illegal.
+     * @throws IllegalArgumentException if any amount is not greater than zero.
+     */
+    @NotNull CompletableFuture<Map<UUID, Boolean>> depositBalances(@NotNull Map<UUID, BigDecimal> amounts);
+
+    /**
+     * Gets a page of transactions of the account with the specified {@code uniqueId}, ordered from newest to oldest.<br>
+     * The result of the future will always be not null, but will be empty if no further transactions exist. If any
+     * error occurs, the future will throw an {@code ExecutionException}.
+     * <p>
+     *     Note: The first page is requested without a transaction. Each following page is requested by passing the last
+     *     transaction of the previous page, so that every page is equally fast to fetch.
+     * </p>
+     *
+     * @param uniqueId the unique-id of the account to get the transactions for.
+     * @param after the last transaction of the previous page, or null to get the first page.
+     * @param limit the maximum number of transactions to get.
+     * @return a {@link CompletableFuture} that returns the transactions of the account.
+     * @throws IllegalArgumentException if the uuid version is illegal.
+     * @throws IllegalArgumentException if the specified {@code limit} is not between one and one hundred.
+     */
+    @NotNull CompletableFuture<List<Transaction>> getTransactions(@NotNull UUID uniqueId, @Nullable Transaction after, int limit);
 
 }
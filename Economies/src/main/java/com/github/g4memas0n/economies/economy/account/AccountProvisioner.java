@@ -0,0 +1,195 @@
+package com.github.g4memas0n.economies.economy.account;
+
+import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.economy.EconomyException;
+import com.github.g4memas0n.economies.storage.AccountStorage;
+import com.github.g4memas0n.economies.storage.StorageException;
+import com.github.g4memas0n.economies.storage.StorageManager;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The provisioner that provides the accounts of joining players in batches.
+ * <p>
+ *     Joining players are collected for the configured window, so that the accounts of all players that joined within
+ *     the window will be created or renamed with a single batch and cached afterwards, instead of querying and creating
+ *     each account separately when it is first used.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+class AccountProvisioner {
+
+    private final Map<UUID, Request> requests;
+    private final AccountManager manager;
+    private final StorageManager storage;
+    private final long window;
+
+    private ScheduledExecutorService scheduler;
+    private List<Request> queue;
+    private boolean scheduled;
+
+    AccountProvisioner(@NotNull final AccountManager manager, @NotNull final StorageManager storage, final long window) {
+        this.requests = new ConcurrentHashMap<>();
+        this.manager = manager;
+        this.storage = storage;
+        this.window = window;
+        this.queue = new ArrayList<>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Economies-Account-Provisioner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the provision of the account for the specified joining {@code player}.
+     *
+     * @param player the player that joined.
+     * @return the future that completes when the account of the player was provided, or fails if the provisioner is
+     *         already stopped.
+     */
+    public @NotNull CompletableFuture<Void> submit(@NotNull final Player player) {
+        synchronized (this) {
+            if (this.scheduler == null) {
+                // the provisioner is stopped, so the account will be created on its first use instead
+                return CompletableFuture.failedFuture(new EconomyException("account provisioner is stopped"));
+            }
+
+            final Request pending = this.requests.get(player.getUniqueId());
+
+            if (pending != null) {
+                // the player rejoined before the account was provided, so provide it for the new player instance
+                pending.player = player;
+                return pending.future;
+            }
+
+            final Request request = new Request(player);
+
+            this.requests.put(player.getUniqueId(), request);
+            this.queue.add(request);
+
+            if (!this.scheduled) {
+                this.scheduler.schedule(this::flush, this.window, TimeUnit.MILLISECONDS);
+                this.scheduled = true;
+            }
+
+            return request.future;
+        }
+    }
+
+    /**
+     * Returns the pending provision of the account with the specified {@code uniqueId}.
+     *
+     * @param uniqueId the unique id of the account.
+     * @return the future that completes when the account was provided, or null if no provision is pending.
+     */
+    public @Nullable CompletableFuture<Void> getPending(@NotNull final UUID uniqueId) {
+        final Request request = this.requests.get(uniqueId);
+
+        return request != null ? request.future : null;
+    }
+
+    public void stop() {
+        final ScheduledExecutorService scheduler;
+
+        synchronized (this) {
+            scheduler = this.scheduler;
+            this.scheduler = null;
+        }
+
+        if (scheduler == null) {
+            return;
+        }
+
+        scheduler.shutdown();
+
+        try {
+            if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                Economies.warn("Timed out while waiting for the account provisioner to terminate");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        // provide the accounts of players that joined within the last window
+        flush();
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private void flush() {
+        final List<Request> batch;
+
+        synchronized (this) {
+            batch = this.queue;
+            this.queue = new ArrayList<>();
+            this.scheduled = false;
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        final Map<UUID, String> names = new HashMap<>();
+        Map<UUID, AccountStorage> accounts = null;
+        StorageException failure = null;
+
+        for (final Request request : batch) {
+            names.put(request.player.getUniqueId(), request.player.getName());
+        }
+
+        try {
+            accounts = this.storage.provideAccounts(names);
+        } catch (StorageException ex) {
+            failure = ex;
+        }
+
+        for (final Request request : batch) {
+            // remove the request before completing it, so that waiting operations will not find it anymore
+            this.requests.remove(request.player.getUniqueId(), request);
+
+            if (failure != null) {
+                request.future.completeExceptionally(new EconomyException("", failure));
+                continue;
+            }
+
+            final AccountStorage storage = accounts.get(request.player.getUniqueId());
+
+            if (storage == null) {
+                request.future.completeExceptionally(new AccountNotFoundException(request.player));
+                continue;
+            }
+
+            this.manager.provided(request.player, storage);
+            request.future.complete(null);
+        }
+
+        Economies.debug("Provided accounts for %d joining players", batch.size());
+    }
+
+    private static final class Request {
+
+        private final CompletableFuture<Void> future;
+        private volatile Player player;
+
+        private Request(@NotNull final Player player) {
+            this.future = new CompletableFuture<>();
+            this.player = player;
+        }
+    }
+}
@@ -6,7 +6,7 @@ import com.google.common.base.Preconditions;
 import org.jetbrains.annotations.NotNull;
 import java.math.BigDecimal;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executor;
 
 public class BankAccount extends BasicAccount {
 
@@ -14,34 +14,35 @@ public class BankAccount extends BasicAccount {
 
     private final Economies plugin;
 
-    protected BankAccount(@NotNull final AccountStorage storage, @NotNull final Economies plugin) {
-        super(storage);
+    protected BankAccount(@NotNull final AccountStorage storage, @NotNull final Economies plugin,
+                          @NotNull final Executor executor) {
+        super(storage, executor);
 
         this.plugin = plugin;
     }
 
     @Override
-    public @NotNull Future<Void> setBalance(@NotNull final BigDecimal amount) {
+    public @NotNull CompletableFuture<Void> setBalance(@NotNull final BigDecimal amount) {
         throw new UnsupportedOperationException("not possible on global bank account");
     }
 
     @Override
-    public @NotNull Future<Void> depositBalance(@NotNull final BigDecimal amount) {
+    public @NotNull CompletableFuture<Void> depositBalance(@NotNull final BigDecimal amount) {
         throw new UnsupportedOperationException("not possible on global bank account");
     }
 
     @Override
-    public @NotNull Future<Void> withdrawBalance(@NotNull final BigDecimal amount) {
+    public @NotNull CompletableFuture<Void> withdrawBalance(@NotNull final BigDecimal amount) {
         throw new UnsupportedOperationException("not possible on global bank account");
     }
 
     @Override
-    public @NotNull Future<Void> transferBalance(@NotNull final Account account, @NotNull final BigDecimal amount) {
+    public @NotNull CompletableFuture<Void> transferBalance(@NotNull final Account account, @NotNull final BigDecimal amount) {
         throw new UnsupportedOperationException("not possible on global bank account");
     }
 
     @Override
-    public @NotNull Future<Boolean> isCreditworthy() {
+    public @NotNull CompletableFuture<Boolean> isCreditworthy() {
         return CompletableFuture.completedFuture(this.plugin.getSettings().isBankInfinite());
     }
 
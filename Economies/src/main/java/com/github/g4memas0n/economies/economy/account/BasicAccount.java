@@ -3,46 +3,57 @@ package com.github.g4memas0n.economies.economy.account;
 import com.github.g4memas0n.economies.economy.EconomyException;
 import com.github.g4memas0n.economies.economy.NotEnoughMoneyException;
 import com.github.g4memas0n.economies.storage.AccountStorage;
+import com.github.g4memas0n.economies.storage.InsufficientBalanceException;
 import com.github.g4memas0n.economies.storage.StorageException;
 import com.google.common.base.Preconditions;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import java.math.BigDecimal;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executor;
 
 public abstract class BasicAccount implements Account {
 
     protected final AccountStorage storage;
+    protected final Executor executor;
+    protected final AccountMailbox mailbox;
 
-    BasicAccount(@NotNull final AccountStorage storage) {
+    BasicAccount(@NotNull final AccountStorage storage, @NotNull final Executor executor) {
+        this(storage, executor, null);
+    }
+
+    BasicAccount(@NotNull final AccountStorage storage, @NotNull final Executor executor,
+                 @Nullable final AccountMailbox mailbox) {
         this.storage = storage;
+        this.executor = executor;
+        this.mailbox = mailbox;
     }
 
     @Override
-    public @NotNull Future<UUID> getUniqueId() {
+    public @NotNull CompletableFuture<UUID> getUniqueId() {
         return CompletableFuture.supplyAsync(() -> {
             try {
                 return this.storage.getUniqueId();
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<String> getName() {
+    public @NotNull CompletableFuture<String> getName() {
         return CompletableFuture.supplyAsync(() -> {
             try {
                 return this.storage.getName();
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Void> setName(@NotNull final String name) {
+    public @NotNull CompletableFuture<Void> setName(@NotNull final String name) {
         Preconditions.checkArgument(name.length() <= 16, "name is too long");
 
         return CompletableFuture.runAsync(() -> {
@@ -51,23 +62,23 @@ public abstract class BasicAccount implements Account {
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<BigDecimal> getBalance() {
+    public @NotNull CompletableFuture<BigDecimal> getBalance() {
         return CompletableFuture.supplyAsync(() -> {
             try {
                 return this.storage.getBalance();
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Boolean> hasBalance(@NotNull final BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public @NotNull CompletableFuture<Boolean> hasBalance(@NotNull final BigDecimal amount) {
+        if (amount.signum() <= 0) {
             throw new IllegalArgumentException("amount must be greater than zero");
         }
 
@@ -77,92 +88,94 @@ public abstract class BasicAccount implements Account {
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Void> setBalance(@NotNull final BigDecimal balance) {
+    public @NotNull CompletableFuture<Void> setBalance(@NotNull final BigDecimal balance) {
+        if (this.mailbox != null) {
+            return this.mailbox.set(this.storage, balance);
+        }
+
         return CompletableFuture.runAsync(() -> {
             try {
                 this.storage.setBalance(balance);
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Void> depositBalance(@NotNull final BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public @NotNull CompletableFuture<Void> depositBalance(@NotNull final BigDecimal amount) {
+        if (amount.signum() <= 0) {
             throw new IllegalArgumentException("amount must be greater than zero");
         }
 
-        return ((CompletableFuture<Boolean>) BankAccount.get().isCreditworthy()).thenAcceptAsync(creditworthy -> {
-            try {
-                if (!creditworthy) {
-                    BigDecimal balance = BankAccount.get().storage.getBalance().subtract(amount);
-
-                    if (balance.compareTo(BigDecimal.ZERO) < 0) {
-                        // throw exception as the new balance would be negative
-                        throw new NotEnoughMoneyException(balance.negate());
-                    }
-                }
+        if (this.mailbox != null) {
+            return BankAccount.get().isCreditworthy().thenCompose(creditworthy ->
+                    this.mailbox.deposit(this.storage, amount, creditworthy));
+        }
 
+        return BankAccount.get().isCreditworthy().thenAcceptAsync(creditworthy -> {
+            try {
                 this.storage.depositBalance(amount, creditworthy);
+            } catch (InsufficientBalanceException ex) {
+                // the storage refused the change as the new balance would be negative
+                throw new NotEnoughMoneyException(ex.getAmount());
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Void> withdrawBalance(@NotNull final BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public @NotNull CompletableFuture<Void> withdrawBalance(@NotNull final BigDecimal amount) {
+        if (amount.signum() <= 0) {
             throw new IllegalArgumentException("amount must be greater than zero");
         }
 
-        return ((CompletableFuture<Boolean>) isCreditworthy()).thenAcceptAsync(creditworthy -> {
-            try {
-                if (!creditworthy) {
-                    BigDecimal balance = this.storage.getBalance().subtract(amount);
-
-                    if (balance.compareTo(BigDecimal.ZERO) < 0) {
-                        // throw exception as the new balance would be negative
-                        throw new NotEnoughMoneyException(balance.negate());
-                    }
-                }
+        if (this.mailbox != null) {
+            return isCreditworthy().thenCompose(creditworthy ->
+                    this.mailbox.withdraw(this.storage, amount, creditworthy));
+        }
 
+        return isCreditworthy().thenAcceptAsync(creditworthy -> {
+            try {
                 this.storage.withdrawBalance(amount, creditworthy);
+            } catch (InsufficientBalanceException ex) {
+                // the storage refused the change as the new balance would be negative
+                throw new NotEnoughMoneyException(ex.getAmount());
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 
     @Override
-    public @NotNull Future<Void> transferBalance(@NotNull final Account account, @NotNull final BigDecimal amount) {
+    public @NotNull CompletableFuture<Void> transferBalance(@NotNull final Account account, @NotNull final BigDecimal amount) {
         Preconditions.checkState(account instanceof BasicAccount, "unknown account implementation");
         Preconditions.checkArgument(account != this, "account can not be equal to itself");
 
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (amount.signum() <= 0) {
             throw new IllegalArgumentException("amount must be greater than zero");
         }
 
-        return ((CompletableFuture<Boolean>) isCreditworthy()).thenAcceptAsync(creditworthy -> {
-            try {
-                if (!creditworthy) {
-                    BigDecimal balance = this.storage.getBalance().subtract(amount);
-
-                    if (balance.compareTo(BigDecimal.ZERO) < 0) {
-                        // throw exception as the new balance would be negative
-                        throw new NotEnoughMoneyException(balance.negate());
-                    }
-                }
+        if (this.mailbox != null) {
+            // the transfer runs in the mailbox of the sending account, as only its balance can become insufficient
+            return isCreditworthy().thenCompose(creditworthy ->
+                    this.mailbox.transfer(this.storage, ((BasicAccount) account).storage, amount, creditworthy));
+        }
 
+        return isCreditworthy().thenAcceptAsync(creditworthy -> {
+            try {
                 this.storage.transferBalance(((BasicAccount) account).storage, amount, creditworthy);
+            } catch (InsufficientBalanceException ex) {
+                // the storage refused the change as the new balance would be negative
+                throw new NotEnoughMoneyException(ex.getAmount());
             } catch (StorageException ex) {
                 throw new EconomyException("", ex);
             }
-        });
+        }, this.executor);
     }
 }
@@ -3,39 +3,46 @@ package com.github.g4memas0n.economies.economy.account;
 import com.github.g4memas0n.economies.storage.AccountStorage;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executor;
 
 public class PlayerAccount extends BasicAccount {
 
     protected final OfflinePlayer player;
 
-    public PlayerAccount(@NotNull final AccountStorage storage, @NotNull final OfflinePlayer player) {
-        super(storage);
+    public PlayerAccount(@NotNull final AccountStorage storage, @NotNull final OfflinePlayer player,
+                         @NotNull final Executor executor) {
+        this(storage, player, executor, null);
+    }
+
+    PlayerAccount(@NotNull final AccountStorage storage, @NotNull final OfflinePlayer player,
+                  @NotNull final Executor executor, @Nullable final AccountMailbox mailbox) {
+        super(storage, executor, mailbox);
 
         this.player = player;
     }
 
     @Override
-    public @NotNull Future<UUID> getUniqueId() {
+    public @NotNull CompletableFuture<UUID> getUniqueId() {
         return CompletableFuture.completedFuture(this.player.getUniqueId());
     }
 
     @Override
-    public @NotNull Future<String> getName() {
+    public @NotNull CompletableFuture<String> getName() {
         final String name = this.player.getName();
 
         return name != null ? CompletableFuture.completedFuture(name) : super.getName();
     }
 
     @Override
-    public @NotNull Future<Void> setName(@NotNull final String name) {
+    public @NotNull CompletableFuture<Void> setName(@NotNull final String name) {
         throw new UnsupportedOperationException("not possible on player bank account");
     }
 
     @Override
-    public @NotNull Future<Boolean> isCreditworthy() {
+    public @NotNull CompletableFuture<Boolean> isCreditworthy() {
         boolean creditworthy;
 
         if (this.player.isOnline() && this.player.getPlayer() != null) {
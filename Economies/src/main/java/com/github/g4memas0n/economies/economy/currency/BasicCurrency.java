@@ -1,34 +1,39 @@
 package com.github.g4memas0n.economies.economy.currency;
 
 import com.github.g4memas0n.economies.config.Settings;
+import com.github.g4memas0n.economies.economy.Money;
 import org.jetbrains.annotations.NotNull;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
-import java.text.ParseException;
-import java.util.Locale;
 
 public class BasicCurrency implements Currency {
 
-    private final DecimalFormat format;
-    private final String symbol;
-    private final boolean suffix;
+    private volatile Compiled compiled;
 
     public BasicCurrency(@NotNull final Settings settings) {
         this(settings.getCurrencyFormat(), settings.getCurrencySymbol(), settings.isCurrencySuffix());
     }
 
     public BasicCurrency(@NotNull final DecimalFormat format, @NotNull final String symbol, final boolean suffix) {
-        this.format = format;
-        this.format.setRoundingMode(RoundingMode.FLOOR);
-        this.format.setMaximumFractionDigits(2);
-        this.format.setParseBigDecimal(true);
-        this.symbol = symbol;
-        this.suffix = suffix;
+        this.compiled = compile(format, symbol, suffix);
+    }
+
+    /**
+     * Reloads the format of this currency from the specified {@code snapshot}.
+     * <p>
+     *     Note: The formatter and parser are replaced at once, so that running operations either use the previous or
+     *     the reloaded format.
+     * </p>
+     *
+     * @param snapshot the reloaded settings snapshot.
+     */
+    public void reload(@NotNull final Settings.Snapshot snapshot) {
+        this.compiled = compile(snapshot.createCurrencyFormat(), snapshot.currencySymbol(), snapshot.currencySuffix());
     }
 
     public @NotNull String getSymbol() {
-        return this.symbol;
+        return this.compiled.formatter().getSymbol();
     }
 
     @Override
@@ -42,17 +47,12 @@ public class BasicCurrency implements Currency {
 
     @Override
     public @NotNull String format(@NotNull final BigDecimal decimal) {
-        String string = this.format.format(decimal);
-
-        if (this.format.toPattern().contains(".00")) {
-            char separator = this.format.getDecimalFormatSymbols().getDecimalSeparator();
-
-            if (string.endsWith(separator + "00")) {
-                string = string.substring(0, string.length() - 3);
-            }
-        }
+        return this.compiled.formatter().format(decimal);
+    }
 
-        return this.suffix ? string + getSymbol() : getSymbol() + string;
+    @Override
+    public @NotNull String format(@NotNull final Money money) {
+        return this.compiled.formatter().format(money.getCents());
     }
 
     @Override
@@ -72,16 +72,40 @@ public class BasicCurrency implements Currency {
 
     @Override
     public @NotNull BigDecimal parse(@NotNull final String number) {
-        try {
-            BigDecimal decimal = (BigDecimal) this.format.parse(number.toUpperCase(Locale.ROOT));
+        return Money.toDecimal(parseCents(number));
+    }
 
-            if (decimal.scale() > 2) {
-                decimal = decimal.setScale(2, RoundingMode.FLOOR);
-            }
+    @Override
+    public @NotNull Money parseMoney(@NotNull final String number) {
+        return Money.ofCents(parseCents(number));
+    }
 
-            return decimal;
-        } catch (ParseException ex) {
-            throw new IllegalArgumentException("number cannot be parsed", ex);
+    @Override
+    public @NotNull ParseResult tryParse(@NotNull final String number) {
+        return this.compiled.parser().parse(number);
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private long parseCents(@NotNull final String number) {
+        final ParseResult result = this.compiled.parser().parse(number);
+
+        if (!result.isSuccess()) {
+            throw new IllegalArgumentException("number cannot be parsed: " + result.getError());
         }
+
+        return result.getCents();
+    }
+
+    private static @NotNull Compiled compile(@NotNull final DecimalFormat format, @NotNull final String symbol,
+                                             final boolean suffix) {
+        format.setRoundingMode(RoundingMode.FLOOR);
+        format.setMaximumFractionDigits(2);
+
+        return new Compiled(new CurrencyFormatter(format, symbol, suffix), new CurrencyParser(format));
     }
+
+    private record Compiled(@NotNull CurrencyFormatter formatter, @NotNull CurrencyParser parser) { }
 }
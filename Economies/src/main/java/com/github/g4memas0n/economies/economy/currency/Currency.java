@@ -1,5 +1,6 @@
 package com.github.g4memas0n.economies.economy.currency;
 
+import com.github.g4memas0n.economies.economy.Money;
 import org.jetbrains.annotations.NotNull;
 import java.math.BigDecimal;
 
@@ -29,6 +30,14 @@ public interface Currency {
      */
     @NotNull String format(@NotNull BigDecimal number);
 
+    /**
+     * Formats the given {@code money} into a human-readable representation.
+     *
+     * @param money the money to format.
+     * @return the formatted money.
+     */
+    @NotNull String format(@NotNull Money money);
+
     /**
      * Parses the specified {@code double} into a {@link BigDecimal}.
      * <p>
@@ -55,4 +64,29 @@ public interface Currency {
      */
     @NotNull BigDecimal parse(@NotNull String number);
 
+    /**
+     * Parses the specified {@code number} string into {@link Money}.
+     * <p>
+     *     Note: The parsed number will be rounded down to the scale/precision of two if the scale/precision of the
+     *     specified {@code number} is higher than two.
+     * </p>
+     *
+     * @param number the string representation of the number to parse.
+     * @return the parsed money.
+     * @throws IllegalArgumentException if the number could not be parsed or does not fit into money.
+     */
+    @NotNull Money parseMoney(@NotNull String number);
+
+    /**
+     * Parses the specified {@code number} string without throwing an exception if it is invalid.
+     * <p>
+     *     Note: The number can end with the shorthand suffixes {@code k}, {@code m} or {@code b} and will be rounded
+     *     down to the scale/precision of two, like the other parse methods.
+     * </p>
+     *
+     * @param number the string representation of the number to parse.
+     * @return the result holding the parsed amount or the reason why the number is invalid.
+     */
+    @NotNull ParseResult tryParse(@NotNull String number);
+
 }
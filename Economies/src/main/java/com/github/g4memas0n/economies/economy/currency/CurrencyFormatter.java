@@ -0,0 +1,219 @@
+package com.github.g4memas0n.economies.economy.currency;
+
+import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.economy.Money;
+import org.jetbrains.annotations.NotNull;
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * A thread-safe formatter for amounts of a currency, that is compiled from a {@link DecimalFormat}.
+ * <p>
+ *     The symbols, affixes and grouping of the decimal format are resolved once, so that formatting only writes the
+ *     digits of the cents into a local buffer. After compiling, the formatter verifies its output against the decimal
+ *     format and falls back to a synchronized copy of it, if the pattern uses features it does not support.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public final class CurrencyFormatter {
+
+    private static final long[] SAMPLES = {0, 1, 5, 10, 50, 99, 100, 101, 110, 1000, 1050, 99999, 100000, 123456,
+            1234567, 100000000, 123456789012L, Long.MAX_VALUE};
+
+    private final DecimalFormat fallback;
+    private final String symbol;
+    private final boolean suffix;
+    private final boolean strip;
+
+    private final char zero;
+    private final char decimal;
+    private final char grouping;
+    private final int groupingSize;
+    private final int minimumInteger;
+    private final int minimumFraction;
+    private final char[] positivePrefix;
+    private final char[] positiveSuffix;
+    private final char[] negativePrefix;
+    private final char[] negativeSuffix;
+
+    private final boolean compiled;
+
+    public CurrencyFormatter(@NotNull final DecimalFormat format, @NotNull final String symbol, final boolean suffix) {
+        final DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+
+        this.fallback = (DecimalFormat) format.clone();
+        this.symbol = symbol;
+        this.suffix = suffix;
+        // the trailing zeros are only stripped if they are written as ascii digits
+        this.strip = format.toPattern().contains(".00") && symbols.getZeroDigit() == '0';
+
+        this.zero = symbols.getZeroDigit();
+        this.decimal = symbols.getMonetaryDecimalSeparator() != symbols.getDecimalSeparator()
+                && isCurrencyFormat(format) ? symbols.getMonetaryDecimalSeparator() : symbols.getDecimalSeparator();
+        this.grouping = symbols.getGroupingSeparator();
+        this.groupingSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+        this.minimumInteger = format.getMinimumIntegerDigits();
+        this.minimumFraction = Math.min(format.getMinimumFractionDigits(), Money.SCALE);
+        this.positivePrefix = format.getPositivePrefix().toCharArray();
+        this.positiveSuffix = format.getPositiveSuffix().toCharArray();
+        this.negativePrefix = format.getNegativePrefix().toCharArray();
+        this.negativeSuffix = format.getNegativeSuffix().toCharArray();
+
+        this.compiled = isSupported(format) && verify();
+
+        if (!this.compiled) {
+            Economies.warn("Could not compile currency format %s, falling back to the decimal format", format.toPattern());
+        }
+    }
+
+    public @NotNull String getSymbol() {
+        return this.symbol;
+    }
+
+    /**
+     * Formats the specified amount of {@code cents} into a human-readable representation.
+     *
+     * @param cents the amount in cents.
+     * @return the formatted amount including the currency symbol.
+     */
+    public @NotNull String format(final long cents) {
+        if (!this.compiled || cents == Long.MIN_VALUE) {
+            return fallback(Money.toDecimal(cents));
+        }
+
+        return compiled(cents);
+    }
+
+    /**
+     * Formats the specified {@code decimal} into a human-readable representation.
+     *
+     * @param decimal the decimal amount, that will be rounded down to cents.
+     * @return the formatted amount including the currency symbol.
+     */
+    public @NotNull String format(@NotNull final BigDecimal decimal) {
+        if (this.compiled) {
+            try {
+                return format(Money.toCents(decimal));
+            } catch (ArithmeticException ignored) {
+                // the decimal is out of the range of cents
+            }
+        }
+
+        return fallback(decimal);
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private @NotNull String compiled(final long cents) {
+        final boolean negative = cents < 0;
+        final char[] prefix = negative ? this.negativePrefix : this.positivePrefix;
+        final char[] affix = negative ? this.negativeSuffix : this.positiveSuffix;
+        final char[] buffer = new char[64 + prefix.length + affix.length + this.symbol.length()];
+        long integer = Math.abs(cents / 100);
+        int fraction = (int) Math.abs(cents % 100);
+        int position = buffer.length;
+
+        if (this.suffix) {
+            position -= this.symbol.length();
+            this.symbol.getChars(0, this.symbol.length(), buffer, position);
+        }
+
+        position -= affix.length;
+        System.arraycopy(affix, 0, buffer, position, affix.length);
+
+        int fractions = this.minimumFraction;
+
+        if (fraction % 10 != 0) {
+            fractions = 2;
+        } else if (fraction != 0) {
+            fractions = Math.max(fractions, 1);
+        }
+
+        // the trailing decimal separator and zeros are stripped for whole amounts, as long as nothing follows them
+        if (this.strip && affix.length == 0 && fraction == 0 && fractions == 2) {
+            fractions = 0;
+        }
+
+        if (fractions > 0) {
+            if (fractions == 1) {
+                fraction /= 10;
+            }
+
+            for (int i = 0; i < fractions; i++) {
+                buffer[--position] = (char) (this.zero + fraction % 10);
+                fraction /= 10;
+            }
+
+            buffer[--position] = this.decimal;
+        }
+
+        int digits = 0;
+
+        while (integer > 0 || digits < this.minimumInteger) {
+            if (this.groupingSize > 0 && digits > 0 && digits % this.groupingSize == 0) {
+                buffer[--position] = this.grouping;
+            }
+
+            buffer[--position] = (char) (this.zero + integer % 10);
+            integer /= 10;
+            digits++;
+        }
+
+        position -= prefix.length;
+        System.arraycopy(prefix, 0, buffer, position, prefix.length);
+
+        if (!this.suffix) {
+            position -= this.symbol.length();
+            this.symbol.getChars(0, this.symbol.length(), buffer, position);
+        }
+
+        return new String(buffer, position, buffer.length - position);
+    }
+
+    private @NotNull String fallback(@NotNull final BigDecimal decimal) {
+        String string;
+
+        synchronized (this.fallback) {
+            string = this.fallback.format(decimal);
+        }
+
+        if (this.strip) {
+            final char separator = this.fallback.getDecimalFormatSymbols().getDecimalSeparator();
+
+            if (string.endsWith(separator + "00")) {
+                string = string.substring(0, string.length() - 3);
+            }
+        }
+
+        return this.suffix ? string + this.symbol : this.symbol + string;
+    }
+
+    private boolean verify() {
+        for (final long sample : SAMPLES) {
+            for (final long cents : new long[]{sample, -sample}) {
+                if (!compiled(cents).equals(fallback(Money.toDecimal(cents)))) {
+                    Economies.debug("Compiled currency format differs for %s: %s", Money.toDecimal(cents), compiled(cents));
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isSupported(@NotNull final DecimalFormat format) {
+        return format.getMultiplier() == 1 && !format.isDecimalSeparatorAlwaysShown()
+                && format.getMaximumIntegerDigits() >= 19 && format.getMaximumFractionDigits() == Money.SCALE
+                && (!format.isGroupingUsed() || format.getGroupingSize() > 0);
+    }
+
+    private static boolean isCurrencyFormat(@NotNull final DecimalFormat format) {
+        // the monetary decimal separator is only used by patterns that contain the currency sign
+        return format.toPattern().indexOf('\u00A4') >= 0;
+    }
+}
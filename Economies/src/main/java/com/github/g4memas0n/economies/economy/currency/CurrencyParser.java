@@ -0,0 +1,181 @@
+package com.github.g4memas0n.economies.economy.currency;
+
+import com.github.g4memas0n.economies.economy.Money;
+import org.jetbrains.annotations.NotNull;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * A thread-safe parser for amounts of a currency, that uses the separators of a {@link DecimalFormat}.
+ * <p>
+ *     Amounts can end with the shorthand suffixes {@code k}, {@code m} and {@code b} for thousands, millions and
+ *     billions. Parsed amounts are rounded down to cents. Instead of throwing exceptions, the parser returns a
+ *     {@link ParseResult} that holds the reason why an amount is invalid, as invalid input is common for commands.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public final class CurrencyParser {
+
+    private static final long LIMIT = Long.MAX_VALUE / 10;
+
+    private final char zero;
+    private final char minus;
+    private final char decimal;
+    private final char grouping;
+    private final char alternative;
+    private final int groupingSize;
+
+    public CurrencyParser(@NotNull final DecimalFormat format) {
+        final DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+
+        this.zero = symbols.getZeroDigit();
+        this.minus = symbols.getMinusSign();
+        this.decimal = symbols.getDecimalSeparator();
+        this.grouping = symbols.getGroupingSeparator();
+        // players can not easily type the non-breaking spaces that some locales use for grouping
+        this.alternative = Character.isSpaceChar(this.grouping) ? ' ' : this.grouping;
+        this.groupingSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+    }
+
+    /**
+     * Parses the specified {@code input} into cents, rounded down to a scale of two.
+     *
+     * @param input the string representation of the amount to parse.
+     * @return the result holding the parsed cents or the reason why the amount is invalid.
+     */
+    public @NotNull ParseResult parse(@NotNull final CharSequence input) {
+        int start = 0;
+        int end = input.length();
+
+        while (start < end && isIgnorable(input.charAt(start))) {
+            start++;
+        }
+
+        while (end > start && isIgnorable(input.charAt(end - 1))) {
+            end--;
+        }
+
+        if (start == end) {
+            return ParseResult.EMPTY;
+        }
+
+        final int exponent = exponent(input.charAt(end - 1));
+        final boolean negative = input.charAt(start) == this.minus || input.charAt(start) == '-';
+
+        if (exponent > 0) {
+            end--;
+        }
+
+        if (negative) {
+            do {
+                start++;
+            } while (start < end && isIgnorable(input.charAt(start)));
+        }
+
+        // the number of fraction digits that still affect the cents after applying the shorthand suffix
+        final int scale = exponent + Money.SCALE;
+        long mantissa = 0;
+        int fractions = 0;
+        int group = 0;
+        boolean grouped = false;
+        boolean separated = false;
+        boolean truncated = false;
+        boolean digits = false;
+
+        for (int index = start; index < end; index++) {
+            final char character = input.charAt(index);
+            final int digit = digit(character);
+
+            if (digit >= 0) {
+                digits = true;
+
+                if (separated) {
+                    if (fractions >= scale) {
+                        truncated |= digit != 0;
+                        continue;
+                    }
+
+                    fractions++;
+                } else {
+                    group++;
+                }
+
+                if (mantissa > (Long.MAX_VALUE - digit) / 10) {
+                    return ParseResult.OVERFLOW;
+                }
+
+                mantissa = mantissa * 10 + digit;
+                continue;
+            }
+
+            if (character == this.decimal && !separated) {
+                if (grouped && group != this.groupingSize) {
+                    return ParseResult.INVALID;
+                }
+
+                separated = true;
+                continue;
+            }
+
+            if ((character == this.grouping || character == this.alternative) && !separated && this.groupingSize > 0) {
+                // the first group can be shorter, but all following groups must have the full size
+                if (grouped ? group != this.groupingSize : group == 0 || group > this.groupingSize) {
+                    return ParseResult.INVALID;
+                }
+
+                grouped = true;
+                group = 0;
+                continue;
+            }
+
+            return ParseResult.INVALID;
+        }
+
+        if (!digits || !separated && grouped && group != this.groupingSize) {
+            return ParseResult.INVALID;
+        }
+
+        for (int missing = scale - fractions; missing > 0; missing--) {
+            if (mantissa > LIMIT) {
+                return ParseResult.OVERFLOW;
+            }
+
+            mantissa *= 10;
+        }
+
+        if (negative) {
+            // rounding down negative amounts moves them away from zero, if any truncated digit was not zero
+            return ParseResult.success(truncated ? -mantissa - 1 : -mantissa);
+        }
+
+        return ParseResult.success(mantissa);
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private int digit(final char character) {
+        if (character >= this.zero && character <= this.zero + 9) {
+            return character - this.zero;
+        }
+
+        return character >= '0' && character <= '9' ? character - '0' : -1;
+    }
+
+    private static boolean isIgnorable(final char character) {
+        // some locales surround the minus sign of negative amounts with invisible direction marks
+        return Character.isWhitespace(character) || Character.getType(character) == Character.FORMAT;
+    }
+
+    private static int exponent(final char suffix) {
+        return switch (suffix) {
+            case 'k', 'K' -> 3;
+            case 'm', 'M' -> 6;
+            case 'b', 'B' -> 9;
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.g4memas0n.economies.economy.currency;
+
+import com.github.g4memas0n.economies.economy.Money;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The result of parsing an amount, which either holds the parsed cents or the reason why the amount is invalid.
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public final class ParseResult {
+
+    static final ParseResult EMPTY = new ParseResult(0, Error.EMPTY);
+    static final ParseResult INVALID = new ParseResult(0, Error.INVALID);
+    static final ParseResult OVERFLOW = new ParseResult(0, Error.OVERFLOW);
+
+    private final long cents;
+    private final Error error;
+
+    private ParseResult(final long cents, @Nullable final Error error) {
+        this.cents = cents;
+        this.error = error;
+    }
+
+    static @NotNull ParseResult success(final long cents) {
+        return new ParseResult(cents, null);
+    }
+
+    public boolean isSuccess() {
+        return this.error == null;
+    }
+
+    /**
+     * Returns the parsed amount in cents.
+     *
+     * @return the parsed cents.
+     * @throws IllegalStateException if the amount could not be parsed.
+     */
+    public long getCents() {
+        if (this.error != null) {
+            throw new IllegalStateException("amount could not be parsed: " + this.error);
+        }
+
+        return this.cents;
+    }
+
+    public @NotNull Money getMoney() {
+        return Money.ofCents(getCents());
+    }
+
+    public @Nullable Error getError() {
+        return this.error;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return this.error == null ? "ParseResult{cents=" + this.cents + "}" : "ParseResult{error=" + this.error + "}";
+    }
+
+    /**
+     * The reasons why an amount could not be parsed.
+     */
+    public enum Error {
+
+        /**
+         * The amount is empty or only consists of whitespaces.
+         */
+        EMPTY,
+
+        /**
+         * The amount contains unexpected characters or misplaced separators.
+         */
+        INVALID,
+
+        /**
+         * The amount is too large to be represented in cents.
+         */
+        OVERFLOW
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.g4memas0n.economies.listener;
+
+import com.github.g4memas0n.economies.economy.account.AccountManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The player listener, that provides the accounts of joining players.
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public final class PlayerListener implements Listener {
+
+    private final AccountManager accounts;
+
+    public PlayerListener(@NotNull final AccountManager accounts) {
+        this.accounts = accounts;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(@NotNull final PlayerJoinEvent event) {
+        this.accounts.validate(event.getPlayer());
+    }
+}
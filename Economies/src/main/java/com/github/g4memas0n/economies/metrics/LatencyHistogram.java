@@ -0,0 +1,136 @@
+package com.github.g4memas0n.economies.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, that keeps a fixed number of buckets like an HDR histogram.
+ * <p>
+ *     Latencies below 32 nanoseconds are counted exactly, while each greater power of two is split into 16 linear
+ *     buckets. Recorded values and percentiles therefore have a relative error of at most 1/16, independent of the
+ *     magnitude of the latencies.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public final class LatencyHistogram {
+
+    private static final int LINEAR = 32;
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = LINEAR + (Long.SIZE - 1 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder total;
+    private final LongAccumulator maximum;
+
+    public LatencyHistogram() {
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.total = new LongAdder();
+        this.maximum = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records the specified {@code latency}.
+     *
+     * @param latency the latency in nanoseconds, negative latencies are recorded as zero.
+     */
+    public void record(final long latency) {
+        final long value = Math.max(latency, 0);
+
+        this.buckets.incrementAndGet(index(value));
+        this.count.increment();
+        this.total.add(value);
+        this.maximum.accumulate(value);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public long getMaximum(final TimeUnit unit) {
+        return unit.convert(this.maximum.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public double getMean(final TimeUnit unit) {
+        final long count = this.count.sum();
+
+        return count > 0 ? (double) this.total.sum() / count / unit.toNanos(1) : 0D;
+    }
+
+    /**
+     * Returns the latency below which the specified {@code percentile} of all recorded latencies fall.
+     *
+     * @param percentile the percentile between 0 and 100.
+     * @param unit the unit of the returned latency.
+     * @return the upper bound of the bucket that contains the percentile, or zero if nothing was recorded.
+     */
+    public double getPercentile(final double percentile, final TimeUnit unit) {
+        final long[] counts = new long[BUCKETS];
+        long count = 0;
+
+        // copy the buckets first, as the count of the buckets may change while they are read
+        for (int index = 0; index < BUCKETS; index++) {
+            counts[index] = this.buckets.get(index);
+            count += counts[index];
+        }
+
+        if (count == 0) {
+            return 0D;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(count * Math.min(Math.max(percentile, 0D), 100D) / 100D));
+        long seen = 0;
+
+        for (int index = 0; index < BUCKETS; index++) {
+            seen += counts[index];
+
+            if (seen >= rank) {
+                return (double) Math.min(upper(index), this.maximum.get()) / unit.toNanos(1);
+            }
+        }
+
+        return (double) this.maximum.get() / unit.toNanos(1);
+    }
+
+    public void reset() {
+        for (int index = 0; index < BUCKETS; index++) {
+            this.buckets.set(index, 0);
+        }
+
+        this.count.reset();
+        this.total.reset();
+        this.maximum.reset();
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private static int index(final long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+
+        // the shift leaves the highest five bits of the value, of which the lower four select the linear bucket
+        final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    private static long upper(final int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+
+        final int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        final long lower = (long) (SUB_BUCKETS + (index - LINEAR) % SUB_BUCKETS) << shift;
+
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.g4memas0n.economies.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * The registry for the metrics of this plugin, that can be read by commands, other plugins or exporters.
+ * <p>
+ *     Timers record the latencies of operations in histograms, counters count events and gauges read a current value
+ *     when the metrics are requested. If the registry is disabled, operations are not timed and counters are not
+ *     incremented, so that the instrumented code only pays for a single branch.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public final class MetricsRegistry {
+
+    private final Map<String, LatencyHistogram> timers;
+    private final Map<String, LongAdder> counters;
+    private final Map<String, LongSupplier> gauges;
+    private final boolean enabled;
+
+    public MetricsRegistry(final boolean enabled) {
+        this.timers = new ConcurrentHashMap<>();
+        this.counters = new ConcurrentHashMap<>();
+        this.gauges = new ConcurrentHashMap<>();
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Starts timing an operation, which must be stopped through {@link #stop(String, long)}.
+     *
+     * @return the start time of the operation, or zero if this registry is disabled.
+     */
+    public long start() {
+        return this.enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Stops timing an operation and records its latency in the timer with the specified {@code name}.
+     *
+     * @param name the name of the timer.
+     * @param start the start time returned by {@link #start()}.
+     */
+    public void stop(@NotNull final String name, final long start) {
+        if (start == 0L) {
+            return;
+        }
+
+        final long latency = System.nanoTime() - start;
+
+        getTimer(name).record(latency);
+    }
+
+    public void increment(@NotNull final String name) {
+        if (this.enabled) {
+            this.counters.computeIfAbsent(name, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Registers a gauge with the specified {@code name}, that reads its value when the metrics are requested.
+     * <p>
+     *     Gauges are registered even if this registry is disabled, as reading them does not slow down any operation.
+     * </p>
+     *
+     * @param name the name of the gauge.
+     * @param gauge the supplier of the current value.
+     */
+    public void gauge(@NotNull final String name, @NotNull final LongSupplier gauge) {
+        this.gauges.put(name, gauge);
+    }
+
+    public void unregister(@NotNull final String name) {
+        this.gauges.remove(name);
+    }
+
+    /*
+     * Metrics access:
+     */
+
+    public @NotNull LatencyHistogram getTimer(@NotNull final String name) {
+        return this.timers.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    public @Nullable Long getCounter(@NotNull final String name) {
+        final LongAdder counter = this.counters.get(name);
+
+        return counter != null ? counter.sum() : null;
+    }
+
+    /**
+     * Returns the timers of this registry.
+     *
+     * @return an unmodifiable view of the timers, sorted by their names.
+     */
+    public @NotNull Map<String, LatencyHistogram> getTimers() {
+        return Collections.unmodifiableMap(new TreeMap<>(this.timers));
+    }
+
+    /**
+     * Returns the current values of the counters of this registry.
+     *
+     * @return an unmodifiable copy of the counter values, sorted by their names.
+     */
+    public @NotNull Map<String, Long> getCounters() {
+        final Map<String, Long> counters = new TreeMap<>();
+
+        this.counters.forEach((name, counter) -> counters.put(name, counter.sum()));
+        return Collections.unmodifiableMap(counters);
+    }
+
+    /**
+     * Reads the current values of the gauges of this registry.
+     *
+     * @return an unmodifiable copy of the gauge values, sorted by their names.
+     */
+    public @NotNull Map<String, Long> getGauges() {
+        final Map<String, Long> gauges = new TreeMap<>();
+
+        this.gauges.forEach((name, gauge) -> gauges.put(name, gauge.getAsLong()));
+        return Collections.unmodifiableMap(gauges);
+    }
+
+    /**
+     * Resets all timers and counters, gauges are not affected.
+     */
+    public void reset() {
+        this.timers.values().forEach(LatencyHistogram::reset);
+        this.counters.values().forEach(LongAdder::reset);
+    }
+}
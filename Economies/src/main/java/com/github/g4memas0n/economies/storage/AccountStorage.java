@@ -2,6 +2,7 @@ package com.github.g4memas0n.economies.storage;
 
 import org.jetbrains.annotations.NotNull;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 public interface AccountStorage {
@@ -22,6 +23,10 @@ public interface AccountStorage {
 
     void withdrawBalance(@NotNull BigDecimal amount, boolean negative) throws StorageException;
 
+    void depositBalances(@NotNull List<BigDecimal> amounts, boolean negative) throws StorageException;
+
+    void withdrawBalances(@NotNull List<BigDecimal> amounts, boolean negative) throws StorageException;
+
     void transferBalance(@NotNull AccountStorage account, @NotNull BigDecimal amount, boolean negative) throws StorageException;
 
 }
@@ -0,0 +1,22 @@
+package com.github.g4memas0n.economies.storage;
+
+import org.jetbrains.annotations.NotNull;
+import java.math.BigDecimal;
+
+public class InsufficientBalanceException extends StorageException {
+
+    private final BigDecimal amount;
+
+    public InsufficientBalanceException(@NotNull final BigDecimal amount) {
+        super("insufficient balance");
+        this.amount = amount;
+    }
+
+    /**
+     * Returns the amount that is missing to cover the requested change.
+     * @return the missing amount.
+     */
+    public @NotNull BigDecimal getAmount() {
+        return this.amount;
+    }
+}
@@ -1,21 +1,59 @@
 package com.github.g4memas0n.economies.storage;
 
+import com.github.g4memas0n.economies.economy.Leaderboard;
+import com.github.g4memas0n.economies.economy.Transaction;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 
 public interface StorageManager {
 
+    @NotNull AccountStorage getGlobal() throws StorageException;
+
     @Nullable AccountStorage getAccount(@NotNull String name) throws StorageException;
 
     @Nullable AccountStorage getAccount(@NotNull UUID uniqueId) throws StorageException;
 
+    @NotNull Map<UUID, AccountStorage> getAccounts(@NotNull Collection<UUID> uniqueIds) throws StorageException;
+
+    void forEachAccount(@NotNull BiConsumer<UUID, String> consumer) throws StorageException;
+
+    void forEachBalance(@NotNull BiConsumer<UUID, BigDecimal> consumer) throws StorageException;
+
     boolean hasAccount(@NotNull String name) throws StorageException;
 
     boolean hasAccount(@NotNull UUID uniqueId) throws StorageException;
 
     boolean createAccount(@NotNull UUID uniqueId, @NotNull String name) throws StorageException;
 
+    /**
+     * Provides the accounts for all specified players at once, creating the accounts that do not exist yet and updating
+     * the names of the existing ones.
+     *
+     * @param names the current names of the players, mapped by their unique ids.
+     * @return the provided accounts, mapped by their unique ids.
+     * @throws StorageException if the accounts could not be provided.
+     */
+    @NotNull Map<UUID, AccountStorage> provideAccounts(@NotNull Map<UUID, String> names) throws StorageException;
+
     boolean deleteAccount(@NotNull UUID uniqueId) throws StorageException;
 
+    @NotNull Map<UUID, Boolean> depositBalances(@NotNull Map<UUID, BigDecimal> amounts, boolean negative) throws StorageException;
+
+    @NotNull List<Transaction> getTransactions(@NotNull UUID uniqueId, @Nullable Transaction after, int limit) throws StorageException;
+
+    /**
+     * Sets the leaderboard that will be updated after every committed balance change of this storage.
+     *
+     * @param leaderboard the leaderboard to update, or null to stop updating it.
+     */
+    void setLeaderboard(@Nullable Leaderboard leaderboard);
+
+    void shutdown();
+
 }
@@ -0,0 +1,200 @@
+package com.github.g4memas0n.economies.storage.cache;
+
+import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.economy.Money;
+import com.github.g4memas0n.economies.storage.AccountStorage;
+import com.github.g4memas0n.economies.storage.InsufficientBalanceException;
+import com.github.g4memas0n.economies.storage.StorageException;
+import com.github.g4memas0n.economies.storage.cache.CachedStorage.Operation;
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+public class CachedAccount implements AccountStorage {
+
+    private final CachedStorage cache;
+    final AccountStorage storage;
+
+    private volatile UUID uniqueId;
+    private volatile boolean loaded;
+
+    // the balance in cents, only changed while holding the lock of the cache
+    volatile long balance;
+
+    CachedAccount(@NotNull final CachedStorage cache, @NotNull final AccountStorage storage, @NotNull final UUID uniqueId) {
+        this.cache = cache;
+        this.storage = storage;
+        this.uniqueId = uniqueId;
+    }
+
+    @Override
+    public @NotNull UUID getUniqueId() {
+        return this.uniqueId;
+    }
+
+    @Override
+    public void setUniqueId(@NotNull final UUID uniqueId) throws StorageException {
+        this.storage.setUniqueId(uniqueId);
+        this.cache.remap(this, this.uniqueId, uniqueId);
+        this.uniqueId = uniqueId;
+    }
+
+    @Override
+    public @NotNull String getName() throws StorageException {
+        return this.storage.getName();
+    }
+
+    @Override
+    public void setName(@NotNull final String name) throws StorageException {
+        this.storage.setName(name);
+    }
+
+    @Override
+    public @NotNull BigDecimal getBalance() throws StorageException {
+        return Money.toDecimal(load());
+    }
+
+    @Override
+    public void setBalance(@NotNull final BigDecimal balance) throws StorageException {
+        Preconditions.checkState(this != this.cache.global, "not allowed on global account");
+        final CachedAccount global = this.cache.getGlobal();
+        final long cents = Money.toCents(balance);
+
+        load();
+        global.load();
+
+        synchronized (this.cache.lock) {
+            final long delta = Math.subtractExact(this.balance, cents);
+
+            if (delta != 0) {
+                // a positive delta flows back to the global bank, a negative delta is taken from it
+                global.balance = Math.addExact(global.balance, delta);
+                this.balance = cents;
+                this.cache.enqueue(new Operation(Operation.Type.SET, this, null, cents));
+            }
+        }
+    }
+
+    @Override
+    public void depositBalance(@NotNull final BigDecimal amount, final boolean negative) throws StorageException {
+        depositBalances(List.of(amount), negative);
+    }
+
+    @Override
+    public void withdrawBalance(@NotNull final BigDecimal amount, final boolean negative) throws StorageException {
+        withdrawBalances(List.of(amount), negative);
+    }
+
+    @Override
+    public void depositBalances(@NotNull final List<BigDecimal> amounts, final boolean negative) throws StorageException {
+        final CachedAccount global = this.cache.getGlobal();
+        final long[] cents = toCents(amounts);
+        final long total = sum(cents);
+
+        load();
+        global.load();
+
+        synchronized (this.cache.lock) {
+            if (!negative && global.balance < total) {
+                throw new InsufficientBalanceException(Money.toDecimal(total - global.balance));
+            }
+
+            global.balance = Math.subtractExact(global.balance, total);
+            this.balance = Math.addExact(this.balance, total);
+
+            // each change is written on its own, so that the decorated storage records every transaction
+            for (final long amount : cents) {
+                this.cache.enqueue(new Operation(Operation.Type.DEPOSIT, this, null, amount));
+            }
+        }
+    }
+
+    @Override
+    public void withdrawBalances(@NotNull final List<BigDecimal> amounts, final boolean negative) throws StorageException {
+        final CachedAccount global = this.cache.getGlobal();
+        final long[] cents = toCents(amounts);
+        final long total = sum(cents);
+
+        load();
+        global.load();
+
+        synchronized (this.cache.lock) {
+            if (!negative && this.balance < total) {
+                throw new InsufficientBalanceException(Money.toDecimal(total - this.balance));
+            }
+
+            this.balance = Math.subtractExact(this.balance, total);
+            global.balance = Math.addExact(global.balance, total);
+
+            for (final long amount : cents) {
+                this.cache.enqueue(new Operation(Operation.Type.WITHDRAW, this, null, amount));
+            }
+        }
+    }
+
+    @Override
+    public void transferBalance(@NotNull final AccountStorage account, @NotNull final BigDecimal amount, final boolean negative) throws StorageException {
+        Preconditions.checkArgument(account instanceof CachedAccount, "unknown storage implementation");
+        final CachedAccount receiver = (CachedAccount) account;
+        final long cents = Money.toCents(amount);
+
+        load();
+        receiver.load();
+
+        synchronized (this.cache.lock) {
+            if (!negative && this.balance < cents) {
+                throw new InsufficientBalanceException(Money.toDecimal(cents - this.balance));
+            }
+
+            this.balance = Math.subtractExact(this.balance, cents);
+            receiver.balance = Math.addExact(receiver.balance, cents);
+            this.cache.enqueue(new Operation(Operation.Type.TRANSFER, this, receiver, cents));
+        }
+    }
+
+    /*
+     * helper methods:
+     */
+
+    long load() throws StorageException {
+        if (!this.loaded) {
+            // query the balance outside the lock, as it also initializes the balance in the storage if required
+            final long balance = Money.toCents(this.storage.getBalance());
+
+            synchronized (this.cache.lock) {
+                if (!this.loaded) {
+                    this.balance = balance;
+                    this.loaded = true;
+                    this.cache.rank(this);
+                    Economies.debug("Cached balance for account %s", this.uniqueId);
+                }
+
+                return this.balance;
+            }
+        }
+
+        return this.balance;
+    }
+
+    private static long @NotNull [] toCents(@NotNull final List<BigDecimal> amounts) {
+        final long[] cents = new long[amounts.size()];
+
+        for (int index = 0; index < cents.length; index++) {
+            cents[index] = Money.toCents(amounts.get(index));
+        }
+
+        return cents;
+    }
+
+    private static long sum(final long @NotNull [] cents) {
+        long total = 0;
+
+        for (final long amount : cents) {
+            total = Math.addExact(total, amount);
+        }
+
+        return total;
+    }
+}
@@ -0,0 +1,569 @@
+package com.github.g4memas0n.economies.storage.cache;
+
+import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.economy.Leaderboard;
+import com.github.g4memas0n.economies.economy.Money;
+import com.github.g4memas0n.economies.economy.Transaction;
+import com.github.g4memas0n.economies.storage.AccountStorage;
+import com.github.g4memas0n.economies.storage.InsufficientBalanceException;
+import com.github.g4memas0n.economies.storage.StorageException;
+import com.github.g4memas0n.economies.storage.StorageManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+
+/**
+ * A write-behind cache that decorates another {@link StorageManager}.
+ * <p>
+ *     The balances of all loaded accounts are held in memory and are authoritative, so that balance reads and checks
+ *     never reach the decorated storage. Balance changes are recorded in order and will be written to the decorated
+ *     storage asynchronously in the configured interval and on {@link #shutdown()}.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public class CachedStorage implements StorageManager {
+
+    /**
+     * The number of flushes in which a balance change may fail, before it gets dropped.
+     */
+    private static final int MAX_ATTEMPTS = 10;
+
+    final Object lock = new Object();
+    private final Object flushing = new Object();
+
+    private final Map<UUID, WeakReference<CachedAccount>> accounts;
+    private final Set<CachedAccount> stale;
+    private final Deque<Operation> pending;
+    private final StorageManager storage;
+
+    private ScheduledExecutorService scheduler;
+    private volatile Leaderboard leaderboard;
+    volatile CachedAccount global;
+
+    private volatile long lastFlush;
+    private volatile long lastFlushDuration;
+    private volatile long dropped;
+
+    public CachedStorage(@NotNull final StorageManager storage) {
+        this.accounts = new ConcurrentHashMap<>();
+        this.stale = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.pending = new ArrayDeque<>();
+        this.storage = storage;
+        this.lastFlush = System.currentTimeMillis();
+    }
+
+    public void start(final int interval) {
+        if (this.scheduler != null) {
+            throw new IllegalStateException("cache already started");
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Economies-Cache-Flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        if (this.scheduler != null) {
+            this.scheduler.shutdown();
+
+            try {
+                if (!this.scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                    Economies.warn("Timed out while waiting for the cache flush task to finish");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+
+            this.scheduler = null;
+        }
+
+        flush();
+
+        final int remaining = getPendingCount();
+        if (remaining > 0) {
+            Economies.warn("Could not write %d cached balance changes to the storage", remaining);
+        }
+
+        this.storage.shutdown();
+    }
+
+    /**
+     * Writes all pending balance changes to the decorated storage in the order they were made.<br>
+     * If a change could not be written, it and all following changes will be kept for the next flush. A change that
+     * could not be written in {@link #MAX_ATTEMPTS} flushes will be dropped, so that it does not block all following
+     * changes forever. The cached balances of the accounts of a dropped change will be reloaded from the storage, once
+     * none of their changes are pending anymore.
+     */
+    public void flush() {
+        synchronized (this.flushing) {
+            final long start = System.currentTimeMillis();
+            final List<Operation> operations;
+
+            synchronized (this.lock) {
+                if (this.pending.isEmpty()) {
+                    this.lastFlush = start;
+                    this.lastFlushDuration = 0;
+                    purge();
+                    return;
+                }
+
+                operations = new ArrayList<>(this.pending);
+                this.pending.clear();
+            }
+
+            int written = 0;
+
+            for (int index = 0; index < operations.size(); index++) {
+                final Operation operation = operations.get(index);
+
+                try {
+                    operation.apply();
+                    written++;
+                } catch (StorageException ex) {
+                    if (operation.attempts() + 1 < MAX_ATTEMPTS) {
+                        Economies.warn("Could not flush cached balance changes: %s", ex.getMessage());
+
+                        synchronized (this.lock) {
+                            for (int i = operations.size() - 1; i > index; i--) {
+                                this.pending.addFirst(operations.get(i));
+                            }
+
+                            this.pending.addFirst(operation.retry());
+                        }
+                        break;
+                    }
+
+                    // the change keeps failing on its own, so it gets dropped to unblock the following changes
+                    Economies.log(Level.SEVERE, "Dropped cached balance change after %d failed attempts: %s of %s "
+                            + "for account %s: %s", MAX_ATTEMPTS, operation.type().name().toLowerCase(Locale.ROOT),
+                            Money.toDecimal(operation.cents()).toPlainString(), operation.account().getUniqueId(), ex.getMessage());
+                    this.dropped++;
+
+                    // the cached balances already contain the dropped change, so they no longer match the storage
+                    synchronized (this.lock) {
+                        this.stale.add(operation.account());
+
+                        if (operation.target() != null) {
+                            this.stale.add(operation.target());
+                        }
+
+                        if (operation.type() != Operation.Type.TRANSFER) {
+                            this.stale.add(this.global);
+                        }
+                    }
+                }
+            }
+
+            reload();
+
+            this.lastFlush = System.currentTimeMillis();
+            this.lastFlushDuration = this.lastFlush - start;
+
+            Economies.debug("Flushed %d cached balance changes in %d ms", written, this.lastFlushDuration);
+            purge();
+        }
+    }
+
+    /*
+     * Cache metrics:
+     */
+
+    /**
+     * Returns the number of accounts that have balance changes, which are not yet written to the storage.
+     * @return the number of dirty accounts.
+     */
+    public int getDirtyCount() {
+        final Set<CachedAccount> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        synchronized (this.lock) {
+            for (final Operation operation : this.pending) {
+                dirty.add(operation.account());
+
+                if (operation.target() != null) {
+                    dirty.add(operation.target());
+                }
+            }
+        }
+
+        return dirty.size();
+    }
+
+    /**
+     * Returns the number of balance changes, which are not yet written to the storage.
+     * @return the number of pending changes.
+     */
+    public int getPendingCount() {
+        synchronized (this.lock) {
+            return this.pending.size();
+        }
+    }
+
+    /**
+     * Returns the age of the oldest balance change, which is not yet written to the storage.
+     * @return the flush lag in milliseconds, or zero if there are no pending changes.
+     */
+    public long getFlushLag() {
+        synchronized (this.lock) {
+            final Operation oldest = this.pending.peekFirst();
+
+            return oldest != null ? Math.max(0, System.currentTimeMillis() - oldest.timestamp()) : 0;
+        }
+    }
+
+    public long getLastFlush() {
+        return this.lastFlush;
+    }
+
+    public long getLastFlushDuration() {
+        return this.lastFlushDuration;
+    }
+
+    /**
+     * Returns the number of balance changes, which were dropped because they could not be written to the storage.
+     * @return the number of dropped changes.
+     */
+    public long getDroppedCount() {
+        return this.dropped;
+    }
+
+    /*
+     * Methods implementing the StorageManager interface:
+     */
+
+    @Override
+    public void setLeaderboard(@Nullable final Leaderboard leaderboard) {
+        // the cached balances are authoritative, so the leaderboard is updated here instead of the decorated storage
+        this.leaderboard = leaderboard;
+    }
+
+    @Override
+    public @NotNull CachedAccount getGlobal() throws StorageException {
+        CachedAccount global = this.global;
+
+        if (global == null) {
+            synchronized (this.accounts) {
+                if ((global = this.global) == null) {
+                    global = new CachedAccount(this, this.storage.getGlobal(), new UUID(0, 0));
+                    this.global = global;
+                }
+            }
+        }
+
+        return global;
+    }
+
+    @Override
+    public @Nullable AccountStorage getAccount(@NotNull final String name) throws StorageException {
+        final AccountStorage storage = this.storage.getAccount(name);
+
+        return storage != null ? cache(storage.getUniqueId(), storage) : null;
+    }
+
+    @Override
+    public @Nullable AccountStorage getAccount(@NotNull final UUID uniqueId) throws StorageException {
+        final CachedAccount account = cached(uniqueId);
+
+        if (account != null) {
+            return account;
+        }
+
+        final AccountStorage storage = this.storage.getAccount(uniqueId);
+
+        return storage != null ? cache(uniqueId, storage) : null;
+    }
+
+    @Override
+    public @NotNull Map<UUID, AccountStorage> getAccounts(@NotNull final Collection<UUID> uniqueIds) throws StorageException {
+        final Map<UUID, AccountStorage> accounts = new HashMap<>();
+        final List<UUID> missing = new ArrayList<>();
+
+        for (final UUID uniqueId : uniqueIds) {
+            final CachedAccount account = cached(uniqueId);
+
+            if (account != null) {
+                accounts.put(uniqueId, account);
+            } else {
+                missing.add(uniqueId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (final Map.Entry<UUID, AccountStorage> entry : this.storage.getAccounts(missing).entrySet()) {
+                accounts.put(entry.getKey(), cache(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        return accounts;
+    }
+
+    @Override
+    public void forEachBalance(@NotNull final BiConsumer<UUID, BigDecimal> consumer) throws StorageException {
+        this.storage.forEachBalance(consumer);
+    }
+
+    @Override
+    public void forEachAccount(@NotNull final BiConsumer<UUID, String> consumer) throws StorageException {
+        this.storage.forEachAccount(consumer);
+    }
+
+    @Override
+    public boolean hasAccount(@NotNull final String name) throws StorageException {
+        return this.storage.hasAccount(name);
+    }
+
+    @Override
+    public boolean hasAccount(@NotNull final UUID uniqueId) throws StorageException {
+        return cached(uniqueId) != null || this.storage.hasAccount(uniqueId);
+    }
+
+    @Override
+    public boolean createAccount(@NotNull final UUID uniqueId, @NotNull final String name) throws StorageException {
+        return this.storage.createAccount(uniqueId, name);
+    }
+
+    @Override
+    public @NotNull Map<UUID, AccountStorage> provideAccounts(@NotNull final Map<UUID, String> names) throws StorageException {
+        final Map<UUID, AccountStorage> accounts = new HashMap<>();
+
+        for (final Map.Entry<UUID, AccountStorage> entry : this.storage.provideAccounts(names).entrySet()) {
+            accounts.put(entry.getKey(), cache(entry.getKey(), entry.getValue()));
+        }
+
+        return accounts;
+    }
+
+    @Override
+    public boolean deleteAccount(@NotNull final UUID uniqueId) throws StorageException {
+        // pending changes must be written first, as they may reference the account that gets deleted
+        flush();
+
+        this.accounts.remove(uniqueId);
+
+        if (this.leaderboard != null) {
+            this.leaderboard.remove(uniqueId);
+        }
+
+        return this.storage.deleteAccount(uniqueId);
+    }
+
+    @Override
+    public @NotNull Map<UUID, Boolean> depositBalances(@NotNull final Map<UUID, BigDecimal> amounts,
+                                                       final boolean negative) throws StorageException {
+        final Map<UUID, AccountStorage> accounts = getAccounts(amounts.keySet());
+        final Map<UUID, Boolean> results = new HashMap<>();
+        final CachedAccount global = getGlobal();
+        long total = 0;
+
+        global.load();
+
+        for (final Map.Entry<UUID, AccountStorage> entry : accounts.entrySet()) {
+            ((CachedAccount) entry.getValue()).load();
+            total = Math.addExact(total, Money.toCents(amounts.get(entry.getKey())));
+        }
+
+        synchronized (this.lock) {
+            if (!negative && global.balance < total) {
+                throw new InsufficientBalanceException(Money.toDecimal(total - global.balance));
+            }
+
+            for (final UUID uniqueId : amounts.keySet()) {
+                final CachedAccount account = (CachedAccount) accounts.get(uniqueId);
+
+                if (account != null) {
+                    final long cents = Money.toCents(amounts.get(uniqueId));
+
+                    global.balance = Math.subtractExact(global.balance, cents);
+                    account.balance = Math.addExact(account.balance, cents);
+                    enqueue(new Operation(Operation.Type.DEPOSIT, account, null, cents));
+                }
+
+                results.put(uniqueId, account != null);
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public @NotNull List<Transaction> getTransactions(@NotNull final UUID uniqueId, @Nullable final Transaction after,
+                                                      final int limit) throws StorageException {
+        return this.storage.getTransactions(uniqueId, after, limit);
+    }
+
+    /*
+     * helper methods:
+     */
+
+    void enqueue(@NotNull final Operation operation) {
+        // must be called while holding the lock, after the cached balances were changed
+        this.pending.addLast(operation);
+
+        rank(operation.account());
+        if (operation.target() != null) {
+            rank(operation.target());
+        }
+    }
+
+    void rank(@NotNull final CachedAccount account) {
+        final Leaderboard leaderboard = this.leaderboard;
+
+        if (leaderboard != null && account != this.global) {
+            leaderboard.setCents(account.getUniqueId(), account.balance);
+        }
+    }
+
+    void remap(@NotNull final CachedAccount account, @NotNull final UUID previous, @NotNull final UUID uniqueId) {
+        synchronized (this.accounts) {
+            this.accounts.remove(previous);
+            this.accounts.put(uniqueId, new WeakReference<>(account));
+        }
+
+        if (this.leaderboard != null) {
+            this.leaderboard.replace(previous, uniqueId);
+        }
+    }
+
+    private @Nullable CachedAccount cached(@NotNull final UUID uniqueId) {
+        final WeakReference<CachedAccount> reference = this.accounts.get(uniqueId);
+
+        return reference != null ? reference.get() : null;
+    }
+
+    private @NotNull CachedAccount cache(@NotNull final UUID uniqueId, @NotNull final AccountStorage storage) {
+        synchronized (this.accounts) {
+            CachedAccount account = cached(uniqueId);
+
+            // check if the account is already cached, as only one cached instance per account is allowed
+            if (account == null) {
+                account = new CachedAccount(this, storage, uniqueId);
+                this.accounts.put(uniqueId, new WeakReference<>(account));
+            }
+
+            return account;
+        }
+    }
+
+    private void reload() {
+        final List<CachedAccount> accounts;
+
+        synchronized (this.lock) {
+            if (this.stale.isEmpty()) {
+                return;
+            }
+
+            accounts = new ArrayList<>(this.stale);
+            accounts.removeAll(pending());
+        }
+
+        final Map<CachedAccount, Long> balances = new IdentityHashMap<>();
+
+        for (final CachedAccount account : accounts) {
+            try {
+                balances.put(account, Money.toCents(account.storage.getBalance()));
+            } catch (StorageException ex) {
+                // the balance will be reloaded by the next flush
+                Economies.warn("Could not reload cached balance for account %s: %s", account.getUniqueId(), ex.getMessage());
+            }
+        }
+
+        synchronized (this.lock) {
+            // only the flush writes to the storage, so the read balances are still current if no change got queued
+            final Set<CachedAccount> pending = pending();
+
+            for (final Map.Entry<CachedAccount, Long> entry : balances.entrySet()) {
+                final CachedAccount account = entry.getKey();
+
+                if (!pending.contains(account)) {
+                    account.balance = entry.getValue();
+                    this.stale.remove(account);
+                    rank(account);
+                }
+            }
+        }
+    }
+
+    private @NotNull Set<CachedAccount> pending() {
+        // must be called while holding the lock, returns the accounts whose cached balances contain unwritten changes
+        final Set<CachedAccount> accounts = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (final Operation operation : this.pending) {
+            accounts.add(operation.account());
+
+            if (operation.target() != null) {
+                accounts.add(operation.target());
+            }
+
+            if (operation.type() != Operation.Type.TRANSFER) {
+                accounts.add(this.global);
+            }
+        }
+
+        return accounts;
+    }
+
+    private void purge() {
+        // accounts with pending changes are strongly referenced by their operations and will not be purged
+        this.accounts.values().removeIf(reference -> reference.get() == null);
+    }
+
+    record Operation(@NotNull Type type, @NotNull CachedAccount account, @Nullable CachedAccount target,
+                     long cents, long timestamp, int attempts) {
+
+        Operation(@NotNull final Type type, @NotNull final CachedAccount account,
+                  @Nullable final CachedAccount target, final long cents) {
+            this(type, account, target, cents, System.currentTimeMillis(), 0);
+        }
+
+        @NotNull Operation retry() {
+            return new Operation(this.type, this.account, this.target, this.cents, this.timestamp, this.attempts + 1);
+        }
+
+        void apply() throws StorageException {
+            // the amount only becomes a decimal at the storage interface, the database converts it back to cents
+            final BigDecimal amount = Money.toDecimal(this.cents);
+
+            // the changes were already validated against the cached balances, so overdrafts are allowed here
+            switch (this.type) {
+                case SET -> this.account.storage.setBalance(amount);
+                case DEPOSIT -> this.account.storage.depositBalance(amount, true);
+                case WITHDRAW -> this.account.storage.withdrawBalance(amount, true);
+                case TRANSFER -> {
+                    assert this.target != null;
+                    this.account.storage.transferBalance(this.target.storage, amount, true);
+                }
+            }
+        }
+
+        enum Type {
+            SET,
+            DEPOSIT,
+            WITHDRAW,
+            TRANSFER
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.g4memas0n.economies.storage.database;
+
+import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.storage.StorageException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The concurrency control for the write operations of a database.
+ * <p>
+ *     Write operations run within a retry scope, that runs an operation again after it was rolled back because of a
+ *     deadlock, a lock wait timeout, a serialization failure or a conflicting optimistic update. Each retry waits for a
+ *     random time up to an exponentially growing backoff, so that the conflicting operations do not collide again.
+ *     Operations that are called within a running operation are part of its transaction and do not retry on their own.
+ * </p>
+ * <p>
+ *     In the pessimistic mode, balance updates lock the account rows while they are updated. In the optimistic mode,
+ *     balances are read without locks and updated only if the version of the account is unchanged.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+class ConcurrencyControl {
+
+    private static final long MAX_BACKOFF = 1000;
+
+    private final ThreadLocal<int[]> depth;
+    private final LongAdder retries;
+    private final LongAdder conflicts;
+    private final LongAdder deadlocks;
+    private final LongAdder failures;
+
+    private final boolean optimistic;
+    private final int attempts;
+    private final long backoff;
+
+    ConcurrencyControl(final boolean optimistic, final int attempts, final long backoff) {
+        this.depth = ThreadLocal.withInitial(() -> new int[1]);
+        this.retries = new LongAdder();
+        this.conflicts = new LongAdder();
+        this.deadlocks = new LongAdder();
+        this.failures = new LongAdder();
+        this.optimistic = optimistic;
+        this.attempts = attempts;
+        this.backoff = backoff;
+    }
+
+    public boolean isOptimistic() {
+        return this.optimistic;
+    }
+
+    /**
+     * Returns whether the current thread runs within the retry scope of an operation.
+     *
+     * @return true if the current thread runs an operation.
+     */
+    public boolean isActive() {
+        return this.depth.get()[0] > 0;
+    }
+
+    /**
+     * Runs the specified {@code task} and runs it again if it failed because of a concurrency conflict.<br>
+     * The task must roll back its transaction before it fails and must not have any effects outside the database
+     * before it committed.
+     *
+     * @param task the task that writes to the database.
+     * @return the result of the task.
+     * @throws StorageException if the task failed for another reason or still conflicted after all attempts.
+     */
+    public <T> T execute(@NotNull final DatabaseStorage.WriteTask<T> task) throws StorageException {
+        final int[] depth = this.depth.get();
+
+        if (depth[0] > 0) {
+            // nested operations are part of the running transaction, so only the outermost operation retries
+            return task.run();
+        }
+
+        depth[0]++;
+
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return task.run();
+                } catch (StorageException ex) {
+                    final Conflict conflict = classify(ex);
+
+                    if (conflict == null) {
+                        throw ex;
+                    }
+
+                    if (conflict == Conflict.VERSION) {
+                        this.conflicts.increment();
+                    } else {
+                        this.deadlocks.increment();
+                    }
+
+                    if (attempt >= this.attempts) {
+                        this.failures.increment();
+                        Economies.warn("Giving up operation after %d conflicting attempts: %s", attempt, ex.getMessage());
+                        throw ex;
+                    }
+
+                    this.retries.increment();
+                    Economies.debug("Retrying operation after %s conflict (attempt %d)",
+                            conflict.name().toLowerCase(Locale.ROOT), attempt);
+
+                    try {
+                        final long bound = Math.min(this.backoff << Math.min(attempt, 10), MAX_BACKOFF);
+
+                        // full jitter, so that the conflicting operations spread out instead of retrying in lockstep
+                        Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+                    } catch (InterruptedException interrupt) {
+                        Thread.currentThread().interrupt();
+                        throw ex;
+                    }
+                }
+            }
+        } finally {
+            depth[0]--;
+        }
+    }
+
+    /*
+     * Concurrency metrics:
+     */
+
+    /**
+     * Returns the number of operations that were run again after a conflict.
+     * @return the retry count.
+     */
+    public long getRetryCount() {
+        return this.retries.sum();
+    }
+
+    /**
+     * Returns the number of optimistic updates that failed, because the account was changed concurrently.
+     * @return the version conflict count.
+     */
+    public long getConflictCount() {
+        return this.conflicts.sum();
+    }
+
+    /**
+     * Returns the number of operations that were rolled back by the database, because of a deadlock, a lock wait
+     * timeout or a serialization failure.
+     * @return the deadlock count.
+     */
+    public long getDeadlockCount() {
+        return this.deadlocks.sum();
+    }
+
+    public long getFailureCount() {
+        return this.failures.sum();
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private static @Nullable Conflict classify(@NotNull final StorageException exception) {
+        Throwable cause = exception;
+
+        while (cause != null) {
+            if (cause instanceof ConflictException) {
+                return Conflict.VERSION;
+            }
+
+            if (cause instanceof SQLException ex) {
+                final String state = ex.getSQLState();
+
+                // 40001 is used for deadlocks and serialization failures, 1205 is the lock wait timeout of mysql
+                if (ex instanceof SQLTransactionRollbackException || (state != null && state.startsWith("40"))
+                        || ex.getErrorCode() == 1205) {
+                    return Conflict.DEADLOCK;
+                }
+            }
+
+            cause = cause.getCause();
+        }
+
+        return null;
+    }
+
+    private enum Conflict {
+        DEADLOCK,
+        VERSION
+    }
+
+    /**
+     * Thrown when an optimistic update failed, because the version of the account changed since it was read, or when
+     * a global stripe was drained concurrently since it was read.
+     */
+    static final class ConflictException extends StorageException {
+
+        ConflictException(final int id) {
+            super("concurrent update of account (" + id + ")");
+        }
+
+        ConflictException(@NotNull final String message) {
+            super(message);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.github.g4memas0n.economies.storage.database;
 
 import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.economy.Leaderboard;
+import com.github.g4memas0n.economies.economy.Money;
 import com.github.g4memas0n.economies.storage.AccountStorage;
+import com.github.g4memas0n.economies.storage.InsufficientBalanceException;
 import com.github.g4memas0n.economies.storage.StorageException;
 import com.google.common.base.Preconditions;
 import org.jetbrains.annotations.NotNull;
@@ -10,17 +13,28 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.logging.Level;
 
 public class DatabaseAccount implements AccountStorage {
 
+    // the balance of accounts whose balance is not initialized yet
+    private static final long UNINITIALIZED = Long.MIN_VALUE;
+
     private final DatabaseStorage database;
-    private final int id;
+    final int id;
+
+    private volatile UUID uniqueId;
 
-    DatabaseAccount(@NotNull final DatabaseStorage database, final int id) {
+    DatabaseAccount(@NotNull final DatabaseStorage database, final int id, @NotNull final UUID uniqueId) {
         this.database = database;
         this.id = id;
+        this.uniqueId = uniqueId;
     }
 
     @Override
@@ -44,7 +58,7 @@ public class DatabaseAccount implements AccountStorage {
                 throw new StorageException("failed to find account");
             }
 
-            DatabaseStorage.close(statement);
+            this.database.release(statement);
         } catch (SQLException ex) {
             Economies.warn("Could not query uuid for account (%d): %s", this.id, ex.getMessage());
             throw new StorageException("could not query account uuid", ex);
@@ -55,21 +69,42 @@ public class DatabaseAccount implements AccountStorage {
 
     @Override
     public void setUniqueId(@NotNull final UUID uniqueId) throws StorageException {
+        if (!this.database.isWriter()) {
+            this.database.write(() -> {
+                setUniqueId(uniqueId);
+                return null;
+            });
+            return;
+        }
+
         PreparedStatement statement;
         int result;
 
         try (Connection connection = this.database.fetch()) {
+            this.database.markModified(connection);
+
             statement = this.database.prepare(connection, "account.uuid.set");
             statement.setLong(1, uniqueId.getMostSignificantBits());
             statement.setLong(2, uniqueId.getLeastSignificantBits());
             statement.setInt(3, this.id);
             result = statement.executeUpdate();
-            DatabaseStorage.close(statement);
+            this.database.release(statement);
 
             if (result == 0) {
                 Economies.log(Level.SEVERE, "Failed to update uuid for non-existing account (%d)", this.id);
                 throw new StorageException("failed to find account");
             }
+
+            if (this.database.index != null) {
+                this.database.index.remove(this.uniqueId);
+                this.database.index.put(uniqueId, this.id);
+            }
+
+            if (this.database.leaderboard != null) {
+                this.database.leaderboard.replace(this.uniqueId, uniqueId);
+            }
+
+            this.uniqueId = uniqueId;
         } catch (SQLException ex) {
             Economies.warn("Could not update uuid for account (%d): %s", this.id, ex.getMessage());
             throw new StorageException("could not update account uuid", ex);
@@ -92,8 +127,8 @@ public class DatabaseAccount implements AccountStorage {
                 throw new StorageException("failed to find account");
             }
 
-            name = result.getString("name");
-            DatabaseStorage.close(statement);
+            name = result.getString("identifier");
+            this.database.release(statement);
         } catch (SQLException ex) {
             Economies.warn("Could not query name for account (%d): %s", this.id, ex.getMessage());
             throw new StorageException("could not query account name", ex);
@@ -104,15 +139,25 @@ public class DatabaseAccount implements AccountStorage {
 
     @Override
     public void setName(@NotNull final String name) throws StorageException {
+        if (!this.database.isWriter()) {
+            this.database.write(() -> {
+                setName(name);
+                return null;
+            });
+            return;
+        }
+
         PreparedStatement statement;
         int result;
 
         try (Connection connection = this.database.fetch()) {
+            this.database.markModified(connection);
+
             statement = this.database.prepare(connection, "account.name.set");
             statement.setString(1, name);
             statement.setInt(2, this.id);
             result = statement.executeUpdate();
-            DatabaseStorage.close(statement);
+            this.database.release(statement);
 
             if (result == 0) {
                 Economies.log(Level.SEVERE, "Failed to update name for non-existing account (%d)", this.id);
@@ -126,40 +171,67 @@ public class DatabaseAccount implements AccountStorage {
 
     @Override
     public @NotNull BigDecimal getBalance() throws StorageException {
+        long balance;
+
         try (Connection connection = this.database.fetch()) {
-            return queryBalance(connection, this.id);
+            balance = this.id != 1 ? selectBalance(connection, this) : queryGlobal(connection);
         } catch (SQLException ex) {
             Economies.warn("Could not get balance for account (%d): %s", this.id, ex.getMessage());
             throw new StorageException("could not get account balance", ex);
         }
+
+        if (balance == UNINITIALIZED) {
+            // the balance hasn't initialized yet, which writes to the database and therefore must be done by a writer
+            balance = this.database.write(() -> {
+                try (Connection connection = this.database.fetch()) {
+                    return queryBalance(connection, this);
+                } catch (SQLException ex) {
+                    Economies.warn("Could not get balance for account (%d): %s", this.id, ex.getMessage());
+                    throw new StorageException("could not get account balance", ex);
+                }
+            });
+        }
+
+        return Money.toDecimal(balance);
     }
 
     @Override
     public void setBalance(@NotNull final BigDecimal balance) throws StorageException {
+        if (!this.database.isWriter()) {
+            this.database.write(() -> {
+                setBalance(balance);
+                return null;
+            });
+            return;
+        }
+
         Preconditions.checkState(this.id != 1, "not allowed on global account");
+        final long cents = Money.toCents(balance);
         Connection connection = null;
-        BigDecimal delta;
+        long delta;
 
         try {
             connection = this.database.fetch();
             connection.setAutoCommit(false);
-            delta = queryBalance(connection, this.id).subtract(balance);
+            delta = Math.subtractExact(queryBalance(connection, this), cents);
 
-            if (!delta.equals(BigDecimal.ZERO)) {
-                updateBalance(connection, balance, this.id);
+            if (delta != 0) {
+                updateBalance(connection, cents, this.id);
 
-                if (delta.compareTo(BigDecimal.ZERO) > 0) {
+                if (delta > 0) {
                     // old balance is higher than new balance: increment global balance
-                    incrementBalance(connection, delta, 1);
+                    incrementGlobal(connection, delta, this.id);
                     logTransaction(connection, delta, this.id, 1);
+                    connection.commit();
+                    rankBalance(this, cents, true);
                 } else {
                     // old balance is lower than new balance: decrement global balance
-                    delta = delta.negate();
-                    decrementBalance(connection, delta, true, 1);
+                    delta = -delta;
+                    decrementGlobal(connection, delta, true, this.id);
                     logTransaction(connection, delta, 1, this.id);
+                    connection.commit();
+                    rankBalance(this, cents, true);
                 }
-
-                connection.commit();
             } else {
                 connection.rollback();
             }
@@ -182,18 +254,45 @@ public class DatabaseAccount implements AccountStorage {
 
     @Override
     public void depositBalance(@NotNull final BigDecimal amount, final boolean negative) throws StorageException {
+        depositBalances(List.of(amount), negative);
+    }
+
+    @Override
+    public void withdrawBalance(@NotNull final BigDecimal amount, final boolean negative) throws StorageException {
+        withdrawBalances(List.of(amount), negative);
+    }
+
+    @Override
+    public void depositBalances(@NotNull final List<BigDecimal> amounts, final boolean negative) throws StorageException {
+        if (!this.database.isWriter()) {
+            this.database.write(() -> {
+                depositBalances(amounts, negative);
+                return null;
+            });
+            return;
+        }
+
+        final List<Long> cents = new ArrayList<>(amounts.size());
+        long total = 0;
+
+        for (final BigDecimal amount : amounts) {
+            cents.add(Money.toCents(amount));
+            total = Math.addExact(total, cents.get(cents.size() - 1));
+        }
+
         Connection connection = null;
 
         try {
             connection = this.database.fetch();
             connection.setAutoCommit(false);
 
-            queryBalance(connection, this.id); // ensures that the balance is initialized
-            decrementBalance(connection, amount, negative, 1);
-            incrementBalance(connection, amount, this.id);
-            logTransaction(connection, amount, 1, this.id);
+            // lock the account row before the global stripe, like all other balance updates
+            incrementBalance(connection, total, this);
+            decrementGlobal(connection, total, negative, this.id);
+            logTransactions(connection, cents, 1, this.id);
 
             connection.commit();
+            rankBalance(connection, this, total);
             DatabaseStorage.close(connection);
         } catch (StorageException | SQLException ex) {
             if (connection != null) {
@@ -205,25 +304,45 @@ public class DatabaseAccount implements AccountStorage {
                 DatabaseStorage.close(connection);
             }
 
+            if (ex instanceof InsufficientBalanceException cause) {
+                throw cause;
+            }
+
             Economies.warn("Could not deposit onto account (%d): %s", this.id, ex.getMessage());
             throw new StorageException("could not deposit onto account", ex);
         }
     }
 
     @Override
-    public void withdrawBalance(@NotNull final BigDecimal amount, final boolean negative) throws StorageException {
+    public void withdrawBalances(@NotNull final List<BigDecimal> amounts, final boolean negative) throws StorageException {
+        if (!this.database.isWriter()) {
+            this.database.write(() -> {
+                withdrawBalances(amounts, negative);
+                return null;
+            });
+            return;
+        }
+
+        final List<Long> cents = new ArrayList<>(amounts.size());
+        long total = 0;
+
+        for (final BigDecimal amount : amounts) {
+            cents.add(Money.toCents(amount));
+            total = Math.addExact(total, cents.get(cents.size() - 1));
+        }
+
         Connection connection = null;
 
         try {
             connection = this.database.fetch();
             connection.setAutoCommit(false);
 
-            //queryBalance(connection, this.id); // ensures that the balance is initialized
-            decrementBalance(connection, amount, negative, this.id);
-            incrementBalance(connection, amount, 1);
-            logTransaction(connection, amount, this.id, 1);
+            decrementBalance(connection, total, negative, this);
+            incrementGlobal(connection, total, this.id);
+            logTransactions(connection, cents, this.id, 1);
 
             connection.commit();
+            rankBalance(connection, this, -total);
             DatabaseStorage.close(connection);
         } catch (StorageException | SQLException ex) {
             if (connection != null) {
@@ -235,6 +354,10 @@ public class DatabaseAccount implements AccountStorage {
                 DatabaseStorage.close(connection);
             }
 
+            if (ex instanceof InsufficientBalanceException cause) {
+                throw cause;
+            }
+
             Economies.warn("Could not withdraw from account (%d): %s", this.id, ex.getMessage());
             throw new StorageException("could not withdraw from account", ex);
         }
@@ -242,20 +365,36 @@ public class DatabaseAccount implements AccountStorage {
 
     @Override
     public void transferBalance(@NotNull final AccountStorage account, @NotNull final BigDecimal amount, final boolean negative) throws StorageException {
+        if (!this.database.isWriter()) {
+            this.database.write(() -> {
+                transferBalance(account, amount, negative);
+                return null;
+            });
+            return;
+        }
+
         Preconditions.checkArgument(account instanceof DatabaseAccount, "unknown storage implementation");
         DatabaseAccount receiver = (DatabaseAccount) account;
+        final long cents = Money.toCents(amount);
         Connection connection = null;
 
         try {
             connection = this.database.fetch();
             connection.setAutoCommit(false);
 
-            queryBalance(connection, receiver.id); // ensures that the receiver balance is initialized
-            decrementBalance(connection, amount, negative, this.id);
-            incrementBalance(connection, amount, receiver.id);
-            logTransaction(connection, amount, this.id, receiver.id);
+            // update the rows in ascending id order, so that opposing transfers between the same accounts can not deadlock
+            if (this.id < receiver.id) {
+                decrementBalance(connection, cents, negative, this);
+                incrementBalance(connection, cents, receiver);
+            } else {
+                incrementBalance(connection, cents, receiver);
+                decrementBalance(connection, cents, negative, this);
+            }
 
+            logTransaction(connection, cents, this.id, receiver.id);
             connection.commit();
+            rankBalance(connection, this, -cents);
+            rankBalance(connection, receiver, cents);
             DatabaseStorage.close(connection);
         } catch (StorageException | SQLException ex) {
             if (connection != null) {
@@ -267,6 +406,10 @@ public class DatabaseAccount implements AccountStorage {
                 DatabaseStorage.close(connection);
             }
 
+            if (ex instanceof InsufficientBalanceException cause) {
+                throw cause;
+            }
+
             Economies.warn("Could not transfer from account (%d) to account (%d): %s", this.id, receiver.id, ex.getMessage());
             throw new StorageException("could not transfer to account", ex);
         }
@@ -276,78 +419,108 @@ public class DatabaseAccount implements AccountStorage {
      * helper methods:
      */
 
-    private @NotNull BigDecimal queryBalance(@NotNull final Connection connection, final int id) throws StorageException {
+    private long queryBalance(@NotNull final Connection connection, @NotNull final DatabaseAccount account) throws StorageException {
+        long balance = selectBalance(connection, account);
+
+        if (balance == UNINITIALIZED) {
+            // balance hasn't initialized yet, initialize it now
+            balance = initBalance(connection, account);
+        }
+
+        return balance;
+    }
+
+    private long selectBalance(@NotNull final Connection connection, @NotNull final DatabaseAccount account) throws StorageException {
         PreparedStatement statement;
         ResultSet result;
-        BigDecimal balance;
+        long balance;
 
         try {
             statement = this.database.prepare(connection, "account.balance.get");
-            statement.setInt(1, id);
+            statement.setInt(1, account.id);
             result = statement.executeQuery();
 
             if (!result.next()) {
-                DatabaseStorage.close(statement);
-                Economies.log(Level.SEVERE, "Failed to query balance for non-existing account (%d)", id);
+                this.database.release(statement);
+                Economies.log(Level.SEVERE, "Failed to query balance for non-existing account (%d)", account.id);
                 throw new StorageException("failed to find account");
             }
 
-            balance = result.getBigDecimal("balance");
-            DatabaseStorage.close(statement);
+            balance = this.database.getCents(result, "balance");
 
-            if (balance == null) {
-                // balance hasn't initialized yet, initialize it now
-                balance = initBalance(connection, id);
+            if (result.wasNull()) {
+                balance = UNINITIALIZED;
             }
+
+            this.database.release(statement);
         } catch (SQLException ex) {
-            Economies.warn("Could not query balance for account (%d): %s", id, ex.getMessage());
+            Economies.warn("Could not query balance for account (%d): %s", account.id, ex.getMessage());
             throw new StorageException("could not query account balance", ex);
         }
 
         return balance;
     }
 
-    private @NotNull BigDecimal initBalance(@NotNull final Connection connection, final int id) throws StorageException {
-        Preconditions.checkState(id != 1, "calling init balance on global account");
-        final BigDecimal initial = this.database.plugin.getSettings().getInitialBalance();
-        boolean autocommit;
+    private long initBalance(@NotNull final Connection connection, @NotNull final DatabaseAccount account) throws StorageException {
+        Preconditions.checkState(account.id != 1, "calling init balance on global account");
+        final long initial = Money.toCents(this.database.plugin.getSettings().getInitialBalance());
+        boolean autocommit = false;
 
         try {
             autocommit = connection.getAutoCommit();
-            connection.setAutoCommit(autocommit);
-            updateBalance(connection, initial, id);
+            connection.setAutoCommit(false);
+            updateBalance(connection, initial, account.id);
 
-            if (initial.compareTo(BigDecimal.ZERO) > 0) {
-                decrementBalance(connection, initial, true, 1);
-                logTransaction(connection, initial, 1, id);
+            if (initial > 0) {
+                decrementGlobal(connection, initial, true, account.id);
+                logTransaction(connection, initial, 1, account.id);
             }
 
-            connection.commit();
-            connection.setAutoCommit(autocommit);
-        } catch (SQLException ex) {
-            try {
-                connection.rollback();
-            } catch (SQLException ignored) {
+            // only commit if not called within a running transaction, otherwise it commits together with it
+            if (autocommit) {
+                connection.commit();
+                rankBalance(account, initial, true);
+            }
+        } catch (StorageException | SQLException ex) {
+            // only roll back the own transaction, as a running transaction will be rolled back by its caller
+            if (autocommit) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+
+                }
+            }
 
+            if (ex instanceof StorageException cause) {
+                throw cause;
             }
 
-            Economies.warn("Could not initialize balance for account (%d): %s", id, ex.getMessage());
+            Economies.warn("Could not initialize balance for account (%d): %s", account.id, ex.getMessage());
             throw new StorageException("could not initialize account balance", ex);
+        } finally {
+            // restore the auto-commit mode, so that the connection is not returned to the pool within a transaction
+            if (autocommit) {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException ignored) {
+
+                }
+            }
         }
 
         return initial;
     }
 
-    private void updateBalance(@NotNull final Connection connection, @NotNull final BigDecimal balance, final int id) throws StorageException {
+    private void updateBalance(@NotNull final Connection connection, final long balance, final int id) throws StorageException {
         PreparedStatement statement;
         int result;
 
         try {
             statement = this.database.prepare(connection, "account.balance.set");
-            statement.setBigDecimal(1, balance);
+            this.database.setCents(statement, 1, balance);
             statement.setInt(2, id);
             result = statement.executeUpdate();
-            DatabaseStorage.close(statement);
+            this.database.release(statement);
 
             if (result == 0) {
                 Economies.log(Level.SEVERE, "Failed to update balance for non-existing account (%d)", id);
@@ -359,66 +532,370 @@ public class DatabaseAccount implements AccountStorage {
         }
     }
 
-    private void decrementBalance(@NotNull final Connection connection, @NotNull final BigDecimal amount,
-                                  final boolean negative, final int id) throws StorageException {
-        if (!negative) {
-            BigDecimal balance = queryBalance(connection, id).subtract(amount);
+    private void decrementBalance(@NotNull final Connection connection, final long amount,
+                                  final boolean negative, @NotNull final DatabaseAccount account) throws StorageException {
+        if (this.database.control.isOptimistic()) {
+            compareBalance(connection, -amount, negative, account);
+            return;
+        }
 
-            if (balance.compareTo(BigDecimal.ZERO) < 0) {
-                Economies.log(Level.SEVERE, "Failed to ensure allowed balance for account (%d)", id);
-                throw new StorageException("failed to ensure allowed balance");
+        final String key = negative ? "account.balance.decrement" : "account.balance.withdraw";
+
+        if (!applyBalance(connection, key, amount, account.id, !negative)) {
+            // the update matched no row, as the balance is insufficient or not initialized or the account is missing
+            final long balance = queryBalance(connection, account);
+
+            if (!negative && balance < amount) {
+                throw new InsufficientBalanceException(Money.toDecimal(amount - balance));
             }
 
-            updateBalance(connection, balance, id);
+            if (!applyBalance(connection, key, amount, account.id, !negative)) {
+                Economies.log(Level.SEVERE, "Failed to decrement balance for account (%d)", account.id);
+                throw new StorageException("failed to update account balance");
+            }
+        }
+    }
+
+    private void incrementBalance(@NotNull final Connection connection, final long amount,
+                                  @NotNull final DatabaseAccount account) throws StorageException {
+        if (this.database.control.isOptimistic()) {
+            compareBalance(connection, amount, true, account);
             return;
         }
 
+        if (!applyBalance(connection, "account.balance.increment", amount, account.id, false)) {
+            // the update matched no row, as the balance is not initialized or the account is missing
+            queryBalance(connection, account);
+
+            if (!applyBalance(connection, "account.balance.increment", amount, account.id, false)) {
+                Economies.log(Level.SEVERE, "Failed to increment balance for account (%d)", account.id);
+                throw new StorageException("failed to update account balance");
+            }
+        }
+    }
+
+    private boolean applyBalance(@NotNull final Connection connection, @NotNull final String key,
+                                 final long amount, final int id, final boolean guarded) throws StorageException {
         PreparedStatement statement;
         int result;
 
         try {
-            statement = this.database.prepare(connection, "account.balance.decrement");
-            statement.setBigDecimal(1, amount);
+            statement = this.database.prepare(connection, key);
+            this.database.setCents(statement, 1, amount);
             statement.setInt(2, id);
+            if (guarded) {
+                this.database.setCents(statement, 3, amount);
+            }
             result = statement.executeUpdate();
-            DatabaseStorage.close(statement);
+            this.database.release(statement);
+        } catch (SQLException ex) {
+            Economies.warn("Could not update balance for account (%d): %s", id, ex.getMessage());
+            throw new StorageException("could not update account balance", ex);
+        }
 
-            if (result == 0) {
-                Economies.log(Level.SEVERE, "Failed to decrement balance for non-existing account (%d)", id);
+        return result > 0;
+    }
+
+    private void compareBalance(@NotNull final Connection connection, final long delta,
+                                final boolean negative, @NotNull final DatabaseAccount account) throws StorageException {
+        PreparedStatement statement;
+        ResultSet result;
+        long balance;
+        long version;
+
+        try {
+            // read the balance without locking the row, the update only succeeds if the version did not change meanwhile
+            statement = this.database.prepare(connection, "account.balance.versioned");
+            statement.setInt(1, account.id);
+            result = statement.executeQuery();
+
+            if (!result.next()) {
+                this.database.release(statement);
+                Economies.log(Level.SEVERE, "Failed to query balance for non-existing account (%d)", account.id);
                 throw new StorageException("failed to find account");
             }
+
+            balance = this.database.getCents(result, "balance");
+
+            if (result.wasNull()) {
+                balance = UNINITIALIZED;
+            }
+
+            version = result.getLong("version");
+            this.database.release(statement);
+
+            if (balance == UNINITIALIZED) {
+                // the initialization increments the version within the running transaction
+                balance = initBalance(connection, account);
+                version++;
+            }
+
+            final long updated = Math.addExact(balance, delta);
+
+            if (!negative && updated < 0) {
+                throw new InsufficientBalanceException(Money.toDecimal(-updated));
+            }
+
+            statement = this.database.prepare(connection, "account.balance.compare");
+            this.database.setCents(statement, 1, updated);
+            statement.setInt(2, account.id);
+            statement.setLong(3, version);
+
+            final int count = statement.executeUpdate();
+            this.database.release(statement);
+
+            if (count == 0) {
+                throw new ConcurrencyControl.ConflictException(account.id);
+            }
         } catch (SQLException ex) {
-            Economies.warn("Could not decrement balance for account (%d): %s", id, ex.getMessage());
+            Economies.warn("Could not update balance for account (%d): %s", account.id, ex.getMessage());
             throw new StorageException("could not update account balance", ex);
         }
     }
 
-    private void incrementBalance(@NotNull final Connection connection, @NotNull final BigDecimal amount, final int id) throws StorageException {
+    private void logTransaction(@NotNull final Connection connection, final long amount,
+                                final int sender, final int receiver) throws StorageException {
+        // transactions are written within the transaction of their balance changes, so that they commit together
+        this.database.ledger.log(connection, sender, receiver, amount);
+    }
+
+    private void logTransactions(@NotNull final Connection connection, @NotNull final List<Long> amounts,
+                                 final int sender, final int receiver) throws StorageException {
+        // merged balance changes still write one transaction per change, so that the ledger keeps every change
+        if (amounts.size() == 1) {
+            this.database.ledger.log(connection, sender, receiver, amounts.get(0));
+        } else {
+            this.database.ledger.log(connection, sender, receiver, amounts);
+        }
+    }
+
+    private void rankBalance(@NotNull final Connection connection, @NotNull final DatabaseAccount account,
+                             final long amount) {
+        final Leaderboard leaderboard = this.database.leaderboard;
+
+        if (leaderboard == null || account.id == 1) {
+            return;
+        }
+
+        if (leaderboard.getBalance(account.uniqueId) != null) {
+            rankBalance(account, amount, false);
+            return;
+        }
+
+        // the balance was initialized within the committed transaction, so rank the committed balance instead
+        try {
+            final long balance = selectBalance(connection, account);
+
+            if (balance != UNINITIALIZED) {
+                rankBalance(account, balance, true);
+            }
+        } catch (StorageException ignored) {
+            // the committed balance will be ranked by the next balance change of the account
+        }
+    }
+
+    private void rankBalance(@NotNull final DatabaseAccount account, final long cents, final boolean absolute) {
+        final Leaderboard leaderboard = this.database.leaderboard;
+
+        // the leaderboard must only be updated after the balance changes were committed
+        if (leaderboard != null && account.id != 1) {
+            if (absolute) {
+                leaderboard.setCents(account.uniqueId, cents);
+            } else {
+                leaderboard.addCents(account.uniqueId, cents);
+            }
+        }
+    }
+
+    /*
+     * global balance helper methods:
+     */
+
+    private long queryGlobal(@NotNull final Connection connection) throws StorageException {
+        PreparedStatement statement;
+        ResultSet result;
+        long balance;
+
+        try {
+            statement = this.database.prepare(connection, "bank.balance.get");
+            result = statement.executeQuery();
+
+            balance = result.next() ? this.database.getCents(result, "balance") : UNINITIALIZED;
+
+            if (balance == UNINITIALIZED || result.wasNull()) {
+                this.database.release(statement);
+                Economies.log(Level.SEVERE, "Failed to query balance for non-initialized global account");
+                throw new StorageException("failed to find global account");
+            }
+
+            this.database.release(statement);
+        } catch (SQLException ex) {
+            Economies.warn("Could not query balance for global account: %s", ex.getMessage());
+            throw new StorageException("could not query global balance", ex);
+        }
+
+        return balance;
+    }
+
+    private void incrementGlobal(@NotNull final Connection connection, final long amount,
+                                 final int counterparty) throws StorageException {
+        final int stripe = counterparty % this.database.stripes;
         PreparedStatement statement;
         int result;
 
         try {
-            // Increment balance to account with the given id
-            statement = this.database.prepare(connection, "account.balance.increment");
-            statement.setBigDecimal(1, amount);
-            statement.setInt(2, id);
+            // Increment balance of the global stripe that belongs to the counterparty
+            statement = this.database.prepare(connection, "bank.stripe.increment");
+            this.database.setCents(statement, 1, amount);
+            statement.setInt(2, stripe);
             result = statement.executeUpdate();
-            DatabaseStorage.close(statement);
+            this.database.release(statement);
 
             if (result == 0) {
-                Economies.log(Level.SEVERE, "Failed to increment balance for non-existing account (%d)", id);
-                throw new StorageException("failed to find account");
+                Economies.log(Level.SEVERE, "Failed to increment balance for non-existing global stripe (%d)", stripe);
+                throw new StorageException("failed to find global stripe");
             }
         } catch (SQLException ex) {
-            Economies.warn("Could not increment balance for account (%d): %s", id, ex.getMessage());
-            throw new StorageException("could not update account balance", ex);
+            Economies.warn("Could not increment balance for global stripe (%d): %s", stripe, ex.getMessage());
+            throw new StorageException("could not update global balance", ex);
         }
     }
 
+    void decrementGlobal(@NotNull final Connection connection, final long amount,
+                         final boolean negative, final int counterparty) throws StorageException {
+        decrementStripe(connection, amount, negative, counterparty % this.database.stripes);
+    }
 
-    private void logTransaction(@NotNull final Connection connection, @NotNull final BigDecimal amount,
-                                final int sender, final int receiver) throws StorageException {
-        //TODO Implement transaction insert
+    void decrementGlobal(@NotNull final Connection connection, @NotNull final Map<Integer, Long> amounts,
+                         final boolean negative) throws StorageException {
+        final Map<Integer, Long> stripes = new TreeMap<>();
+
+        for (final Map.Entry<Integer, Long> amount : amounts.entrySet()) {
+            stripes.merge(amount.getKey() % this.database.stripes, amount.getValue(), Math::addExact);
+        }
+
+        // decrement the stripes that belong to the counterparties in ascending order, like collections lock them
+        for (final Map.Entry<Integer, Long> stripe : stripes.entrySet()) {
+            decrementStripe(connection, stripe.getValue(), negative, stripe.getKey());
+        }
     }
 
+    private void decrementStripe(@NotNull final Connection connection, final long amount,
+                                 final boolean negative, final int stripe) throws StorageException {
+        PreparedStatement statement;
+        int result;
+
+        if (!negative && !coverGlobal(connection, amount, stripe)) {
+            // the stripe does not cover the amount, so it must be collected from all stripes before any stripe is locked
+            collectGlobal(connection, amount);
+            return;
+        }
+
+        try {
+            // Decrement balance of the global stripe that belongs to the counterparty, if allowed only when it suffices
+            statement = this.database.prepare(connection, negative ? "bank.stripe.decrement" : "bank.stripe.withdraw");
+            this.database.setCents(statement, 1, amount);
+            statement.setInt(2, stripe);
+            if (!negative) {
+                this.database.setCents(statement, 3, amount);
+            }
+            result = statement.executeUpdate();
+            this.database.release(statement);
+        } catch (SQLException ex) {
+            Economies.warn("Could not decrement balance for global stripe (%d): %s", stripe, ex.getMessage());
+            throw new StorageException("could not update global balance", ex);
+        }
+
+        if (result == 0) {
+            if (negative) {
+                Economies.log(Level.SEVERE, "Failed to decrement balance for non-existing global stripe (%d)", stripe);
+                throw new StorageException("failed to find global stripe");
+            }
+
+            // the stripe was drained since it was read and is now locked by the failed update, so collecting from all
+            // stripes could deadlock with another collection. The transaction is rolled back and retried instead
+            throw new ConcurrencyControl.ConflictException("concurrent update of global stripe (" + stripe + ")");
+        }
+    }
+
+    private boolean coverGlobal(@NotNull final Connection connection, final long amount,
+                                final int stripe) throws StorageException {
+        PreparedStatement statement;
+        ResultSet result;
+        boolean covered;
+
+        try {
+            // read the stripe without locking it, as the guarded decrement checks the balance again
+            statement = this.database.prepare(connection, "bank.stripe.get");
+            statement.setInt(1, stripe);
+            result = statement.executeQuery();
+
+            if (!result.next()) {
+                this.database.release(statement);
+                Economies.log(Level.SEVERE, "Failed to query balance for non-existing global stripe (%d)", stripe);
+                throw new StorageException("failed to find global stripe");
+            }
+
+            covered = this.database.getCents(result, "balance") >= amount;
+            this.database.release(statement);
+        } catch (SQLException ex) {
+            Economies.warn("Could not query balance for global stripe (%d): %s", stripe, ex.getMessage());
+            throw new StorageException("could not query global balance", ex);
+        }
+
+        return covered;
+    }
+
+    private void collectGlobal(@NotNull final Connection connection, final long amount) throws StorageException {
+        final Map<Integer, Long> stripes = new LinkedHashMap<>();
+        PreparedStatement statement;
+        ResultSet result;
+        long remaining = amount;
+
+        try {
+            // lock all stripes in ascending order. Other transactions lock a single stripe or several stripes in ascending
+            // order too, so only a transaction that locked a higher stripe before can deadlock, which the retry scope
+            // resolves
+            statement = this.database.prepare(connection, "bank.stripe.lock");
+            result = statement.executeQuery();
+
+            while (result.next()) {
+                final long balance = this.database.getCents(result, "balance");
+
+                stripes.put(result.getInt("stripe"), balance);
+                remaining -= balance;
+            }
+
+            this.database.release(statement);
+
+            if (remaining > 0) {
+                throw new InsufficientBalanceException(Money.toDecimal(remaining));
+            }
+
+            remaining = amount;
+            statement = this.database.prepare(connection, "bank.stripe.decrement");
+
+            for (final Map.Entry<Integer, Long> stripe : stripes.entrySet()) {
+                if (stripe.getValue() <= 0) {
+                    continue;
+                }
+
+                final long share = Math.min(stripe.getValue(), remaining);
+
+                this.database.setCents(statement, 1, share);
+                statement.setInt(2, stripe.getKey());
+                statement.addBatch();
+
+                if ((remaining -= share) == 0) {
+                    break;
+                }
+            }
+
+            statement.executeBatch();
+            this.database.release(statement);
+        } catch (SQLException ex) {
+            Economies.warn("Could not collect balance for global account: %s", ex.getMessage());
+            throw new StorageException("could not update global balance", ex);
+        }
+    }
 }
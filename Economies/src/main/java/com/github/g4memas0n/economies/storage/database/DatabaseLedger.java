@@ -0,0 +1,402 @@
+package com.github.g4memas0n.economies.storage.database;
+
+import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.storage.StorageException;
+import org.jetbrains.annotations.NotNull;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The ledger that writes the transactions of the database accounts.
+ * <p>
+ *     Transactions are queued in the pending transactions table within the database transaction of their balance
+ *     changes, so that every committed balance change has its transaction and a rolled back change never has one, even
+ *     if the server stops right after the commit. A single writer thread moves the queued transactions into the
+ *     transactions table in group commits, each containing up to the configured batch size of transactions. It wakes up
+ *     after the configured latency, or earlier once enough transactions were queued to fill a batch.
+ * </p>
+ * <p>
+ *     Queued transactions survive restarts, so transactions that could not be moved before the plugin got disabled
+ *     will be moved by the next writer. Multiple servers may share the queue, as each transaction is only moved by the
+ *     writer that deleted it from the queue.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public class DatabaseLedger implements Runnable {
+
+    private static final int ATTEMPTS = 5;
+
+    private final AtomicLong queued;
+    private final DatabaseStorage database;
+    private final int size;
+    private final long latency;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    private volatile long lastFlushDuration;
+    private volatile int lastFlushSize;
+    private volatile long written;
+
+    DatabaseLedger(@NotNull final DatabaseStorage database, final int size, final long latency) {
+        this.queued = new AtomicLong();
+        this.database = database;
+        this.size = size;
+        this.latency = latency;
+    }
+
+    public void start() {
+        if (this.writer != null) {
+            throw new IllegalStateException("ledger already started");
+        }
+
+        this.running = true;
+        this.writer = new Thread(this, "Economies-Ledger-Writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public void stop() {
+        if (this.writer == null) {
+            return;
+        }
+
+        // the writer drains the queue before it terminates
+        this.running = false;
+        LockSupport.unpark(this.writer);
+
+        try {
+            this.writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.writer = null;
+    }
+
+    /**
+     * Queues the transaction of the specified {@code amount} from the {@code sender} to the {@code receiver}.<br>
+     * This method must be called within the running transaction of the balance changes, before it gets committed.
+     *
+     * @param connection the connection of the running transaction.
+     * @param sender the id of the sending account.
+     * @param receiver the id of the receiving account.
+     * @param amount the amount of the transaction in cents.
+     * @throws StorageException if the transaction could not be queued.
+     */
+    public void log(@NotNull final Connection connection, final int sender, final int receiver,
+                    final long amount) throws StorageException {
+        final long start = this.database.plugin.getMetrics().start();
+        PreparedStatement statement;
+
+        try {
+            statement = this.database.prepare(connection, "transaction.queue");
+            statement.setInt(1, sender);
+            statement.setInt(2, receiver);
+            statement.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+            this.database.setCents(statement, 4, amount);
+            statement.executeUpdate();
+            this.database.release(statement);
+        } catch (SQLException ex) {
+            Economies.warn("Could not queue transaction from account (%d) to account (%d): %s", sender, receiver, ex.getMessage());
+            throw new StorageException("could not queue transaction", ex);
+        } finally {
+            this.database.plugin.getMetrics().stop("database.ledger.write", start);
+        }
+
+        queued(1);
+    }
+
+    /**
+     * Queues a transaction from the {@code sender} to the {@code receiver} for each of the specified {@code amounts}.<br>
+     * This method must be called within the running transaction of the balance changes, before it gets committed.
+     *
+     * @param connection the connection of the running transaction.
+     * @param sender the id of the sending account.
+     * @param receiver the id of the receiving account.
+     * @param amounts the amounts of the transactions in cents.
+     * @throws StorageException if the transactions could not be queued.
+     */
+    public void log(@NotNull final Connection connection, final int sender, final int receiver,
+                    @NotNull final List<Long> amounts) throws StorageException {
+        if (amounts.isEmpty()) {
+            return;
+        }
+
+        final long start = this.database.plugin.getMetrics().start();
+        final Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+        PreparedStatement statement;
+        int count = 0;
+
+        try {
+            statement = this.database.prepare(connection, "transaction.queue");
+
+            for (final long amount : amounts) {
+                statement.setInt(1, sender);
+                statement.setInt(2, receiver);
+                statement.setTimestamp(3, timestamp);
+                this.database.setCents(statement, 4, amount);
+                statement.addBatch();
+
+                if (++count % this.size == 0) {
+                    statement.executeBatch();
+                }
+            }
+
+            if (count % this.size != 0) {
+                statement.executeBatch();
+            }
+
+            this.database.release(statement);
+        } catch (SQLException ex) {
+            Economies.warn("Could not queue %d transactions from account (%d) to account (%d): %s", amounts.size(),
+                    sender, receiver, ex.getMessage());
+            throw new StorageException("could not queue transactions", ex);
+        } finally {
+            this.database.plugin.getMetrics().stop("database.ledger.write", start);
+        }
+
+        queued(count);
+    }
+
+    /**
+     * Queues the transactions from the {@code sender} to each of the specified {@code receivers}.<br>
+     * This method must be called within the running transaction of the balance changes, before it gets committed.
+     *
+     * @param connection the connection of the running transaction.
+     * @param sender the id of the sending account.
+     * @param receivers the amounts of the transactions in cents, mapped by the ids of the receiving accounts.
+     * @throws StorageException if the transactions could not be queued.
+     */
+    public void log(@NotNull final Connection connection, final int sender,
+                    @NotNull final Map<Integer, Long> receivers) throws StorageException {
+        if (receivers.isEmpty()) {
+            return;
+        }
+
+        final long start = this.database.plugin.getMetrics().start();
+        final Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+        PreparedStatement statement;
+        int count = 0;
+
+        try {
+            statement = this.database.prepare(connection, "transaction.queue");
+
+            for (final Map.Entry<Integer, Long> receiver : receivers.entrySet()) {
+                statement.setInt(1, sender);
+                statement.setInt(2, receiver.getKey());
+                statement.setTimestamp(3, timestamp);
+                this.database.setCents(statement, 4, receiver.getValue());
+                statement.addBatch();
+
+                if (++count % this.size == 0) {
+                    statement.executeBatch();
+                }
+            }
+
+            if (count % this.size != 0) {
+                statement.executeBatch();
+            }
+
+            this.database.release(statement);
+        } catch (SQLException ex) {
+            Economies.warn("Could not queue %d transactions to the ledger: %s", receivers.size(), ex.getMessage());
+            throw new StorageException("could not queue transactions", ex);
+        } finally {
+            this.database.plugin.getMetrics().stop("database.ledger.write", start);
+        }
+
+        queued(count);
+    }
+
+    @Override
+    public void run() {
+        int attempts = 0;
+
+        while (this.running) {
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.latency);
+            long remaining;
+
+            // wait until enough transactions were queued to fill a batch, but at most until the latency is reached
+            while (this.running && this.queued.get() < this.size && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+
+            try {
+                flush();
+                attempts = 0;
+            } catch (StorageException ex) {
+                // back off while the database is unavailable, the transactions stay queued in the meantime
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(Math.min(this.latency << Math.min(++attempts, 5), 30000)));
+            }
+        }
+
+        // drain the queue, as the balance changes of the queued transactions are already committed
+        for (attempts = 1; attempts <= ATTEMPTS; attempts++) {
+            try {
+                flush();
+                return;
+            } catch (StorageException ignored) {
+
+            }
+        }
+
+        Economies.warn("Could not write %d queued transactions to the ledger, they will be written on the next start", this.queued.get());
+    }
+
+    /*
+     * Ledger metrics:
+     */
+
+    /**
+     * Returns the number of transactions that were queued since the last completed flush.
+     * @return the backlog size of this ledger.
+     */
+    public long getBacklog() {
+        return this.queued.get();
+    }
+
+    /**
+     * Returns the duration of the last group commit.
+     * @return the last flush duration in milliseconds.
+     */
+    public long getLastFlushDuration() {
+        return this.lastFlushDuration;
+    }
+
+    public int getLastFlushSize() {
+        return this.lastFlushSize;
+    }
+
+    public long getWrittenCount() {
+        return this.written;
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private void queued(final int count) {
+        final Thread writer = this.writer;
+
+        // wake up the writer early, as there are enough queued transactions to fill a batch
+        if (this.queued.addAndGet(count) >= this.size && writer != null) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void flush() throws StorageException {
+        final long queued = this.queued.get();
+        int moved;
+
+        // move group commits until the queue is drained, as more than one batch may be queued within the latency
+        do {
+            moved = move();
+        } while (moved >= this.size);
+
+        // transactions that were queued during the flush will be counted towards the next flush
+        this.queued.addAndGet(-queued);
+    }
+
+    private int move() throws StorageException {
+        if (!this.database.isWriter()) {
+            return this.database.write(this::move);
+        }
+
+        final long start = System.currentTimeMillis();
+        final List<Entry> batch = new ArrayList<>(this.size);
+        Connection connection = null;
+        PreparedStatement statement;
+        ResultSet result;
+
+        try {
+            connection = this.database.fetch();
+            connection.setAutoCommit(false);
+
+            statement = this.database.prepare(connection, "transaction.pending");
+            statement.setInt(1, this.size);
+            result = statement.executeQuery();
+
+            while (result.next()) {
+                batch.add(new Entry(result.getLong("id"), result.getInt("sender"), result.getInt("receiver"),
+                        result.getTimestamp("timestamp"), this.database.getCents(result, "amount")));
+            }
+
+            result.close();
+            this.database.release(statement);
+
+            if (batch.isEmpty()) {
+                connection.commit();
+                DatabaseStorage.close(connection);
+                return 0;
+            }
+
+            // dequeue the transactions first, as another server may have moved some of them in the meantime
+            statement = this.database.prepare(connection, "transaction.dequeue");
+
+            for (final Entry entry : batch) {
+                statement.setLong(1, entry.id());
+                statement.addBatch();
+            }
+
+            for (final int count : statement.executeBatch()) {
+                if (count == 0) {
+                    this.database.release(statement);
+                    connection.rollback();
+                    DatabaseStorage.close(connection);
+                    throw new ConcurrencyControl.ConflictException("concurrent move of queued transactions");
+                }
+            }
+
+            this.database.release(statement);
+
+            statement = this.database.prepare(connection, "transaction.insert");
+
+            for (final Entry entry : batch) {
+                statement.setInt(1, entry.sender());
+                statement.setInt(2, entry.receiver());
+                statement.setTimestamp(3, entry.timestamp());
+                this.database.setCents(statement, 4, entry.amount());
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+            this.database.release(statement);
+
+            connection.commit();
+            DatabaseStorage.close(connection);
+        } catch (SQLException ex) {
+            if (connection != null) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+
+                }
+                DatabaseStorage.close(connection);
+            }
+
+            Economies.warn("Could not write %d transactions to the ledger: %s", batch.size(), ex.getMessage());
+            throw new StorageException("could not write transactions", ex);
+        }
+
+        this.lastFlushDuration = System.currentTimeMillis() - start;
+        this.lastFlushSize = batch.size();
+        this.written += batch.size();
+
+        Economies.debug("Wrote %d transactions to the ledger in %d ms", batch.size(), this.lastFlushDuration);
+        return batch.size();
+    }
+
+    record Entry(long id, int sender, int receiver, @NotNull Timestamp timestamp, long amount) { }
+}
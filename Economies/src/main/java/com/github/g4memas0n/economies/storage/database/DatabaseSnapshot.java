@@ -0,0 +1,274 @@
+package com.github.g4memas0n.economies.storage.database;
+
+import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.economy.Money;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * A snapshot of the accounts in the database, that is written to a file on shutdown and mapped back on startup.
+ * <p>
+ *     The snapshot holds the id, unique-id, name and balance of every account, so that the resident account state can
+ *     be restored without reading all accounts from the database. It is only trusted if its format and schema version,
+ *     its checksum and its high-water mark still match, as other servers may have changed the database meanwhile.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+class DatabaseSnapshot {
+
+    private static final int MAGIC = 0x45434F53;
+    private static final int VERSION = 2;
+    private static final int HEADER = 4 + 4 + 4 + 4 + 8 + 8 + 8 + 8 + 4 + 8 + 8;
+
+    // the balance of accounts whose balance is not initialized yet
+    static final long NULL = Long.MIN_VALUE;
+
+    private final ByteBuffer buffer;
+    private final int count;
+
+    private DatabaseSnapshot(@NotNull final ByteBuffer buffer, final int count) {
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    /**
+     * Maps the snapshot in the specified {@code file}, if it is still valid.
+     * <p>
+     *     The accounts of the snapshot are only decoded when they are iterated. A valid snapshot can only be mapped once,
+     *     as it gets invalidated on disk until the next snapshot is written.
+     * </p>
+     *
+     * @param file the file of the snapshot.
+     * @param major the major version of the database schema.
+     * @param minor the minor version of the database schema.
+     * @param watermark the current high-water mark of the database.
+     * @return the mapped snapshot, or null if no snapshot exists or the snapshot is invalid or stale.
+     * @throws IOException if the file could not be mapped.
+     */
+    public static @Nullable DatabaseSnapshot map(@NotNull final Path file, final int major, final int minor,
+                                                 @NotNull final Watermark watermark) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        final MappedByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER || channel.size() > Integer.MAX_VALUE) {
+                Economies.debug("Discarding account snapshot: illegal size");
+                return null;
+            }
+
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            Economies.debug("Discarding account snapshot: unknown format");
+            return null;
+        }
+
+        if (buffer.getInt(8) != major || buffer.getInt(12) != minor) {
+            Economies.debug("Discarding account snapshot: schema version changed");
+            return null;
+        }
+
+        if (!watermark.equals(new Watermark(buffer.getLong(16), buffer.getLong(24), buffer.getLong(32), buffer.getLong(40)))) {
+            Economies.debug("Discarding account snapshot: database changed");
+            return null;
+        }
+
+        final ByteBuffer data = buffer.slice(HEADER, buffer.capacity() - HEADER);
+        final CRC32 checksum = new CRC32();
+
+        checksum.update(data.duplicate());
+
+        if (buffer.getLong(52) != data.capacity() || buffer.getLong(60) != checksum.getValue()) {
+            Economies.debug("Discarding account snapshot: checksum mismatch");
+            return null;
+        }
+
+        // invalidate the snapshot on disk, so that it is used at most once if the server stops without writing a new one
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), 0);
+        }
+
+        return new DatabaseSnapshot(data, buffer.getInt(48));
+    }
+
+    public int size() {
+        return this.count;
+    }
+
+    public void forEachId(@NotNull final ObjIntConsumer<UUID> consumer) {
+        final ByteBuffer buffer = this.buffer.duplicate();
+
+        while (buffer.hasRemaining()) {
+            final int id = buffer.getInt();
+            final UUID uniqueId = new UUID(buffer.getLong(), buffer.getLong());
+
+            buffer.position(buffer.position() + 8);
+            skipName(buffer);
+            consumer.accept(uniqueId, id);
+        }
+    }
+
+    public void forEachAccount(@NotNull final BiConsumer<UUID, String> consumer) {
+        final ByteBuffer buffer = this.buffer.duplicate();
+        byte[] name = new byte[16];
+
+        while (buffer.hasRemaining()) {
+            buffer.position(buffer.position() + 4);
+            final UUID uniqueId = new UUID(buffer.getLong(), buffer.getLong());
+            buffer.position(buffer.position() + 8);
+            final int length = buffer.getShort();
+
+            if (length > name.length) {
+                name = new byte[length];
+            }
+
+            buffer.get(name, 0, length);
+            consumer.accept(uniqueId, new String(name, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    public void forEachBalance(@NotNull final BiConsumer<UUID, BigDecimal> consumer) {
+        final ByteBuffer buffer = this.buffer.duplicate();
+
+        while (buffer.hasRemaining()) {
+            buffer.position(buffer.position() + 4);
+            final UUID uniqueId = new UUID(buffer.getLong(), buffer.getLong());
+            final long balance = buffer.getLong();
+
+            skipName(buffer);
+
+            // accounts without a balance have not been initialized yet
+            if (balance != NULL) {
+                consumer.accept(uniqueId, Money.toDecimal(balance));
+            }
+        }
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private static void skipName(@NotNull final ByteBuffer buffer) {
+        final int length = buffer.getShort();
+
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * The high-water mark of the database, that changes whenever accounts or transactions are added or removed and
+     * whenever the name or unique-id of an account is modified.
+     */
+    record Watermark(long transaction, long account, long count, long modification) { }
+
+    /**
+     * The writer of a snapshot, that writes the accounts to a temporary file and replaces the snapshot when finished.
+     */
+    static final class Writer implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final CRC32 checksum;
+        private final Path temporary;
+        private final Path file;
+        private long length;
+        private int count;
+
+        Writer(@NotNull final Path file) throws IOException {
+            this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            this.channel = FileChannel.open(this.temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.channel.position(HEADER);
+            this.buffer = ByteBuffer.allocateDirect(1 << 16);
+            this.checksum = new CRC32();
+            this.file = file;
+        }
+
+        public void add(final int id, @NotNull final UUID uniqueId, @NotNull final String name,
+                        final long balance) throws IOException {
+            final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+
+            if (this.buffer.remaining() < 30 + bytes.length) {
+                flush();
+            }
+
+            this.buffer.putInt(id);
+            this.buffer.putLong(uniqueId.getMostSignificantBits());
+            this.buffer.putLong(uniqueId.getLeastSignificantBits());
+            this.buffer.putLong(balance);
+            this.buffer.putShort((short) bytes.length);
+            this.buffer.put(bytes);
+            this.count++;
+        }
+
+        /**
+         * Finishes the snapshot and replaces the previous snapshot with it.
+         *
+         * @param major the major version of the database schema.
+         * @param minor the minor version of the database schema.
+         * @param watermark the high-water mark of the database at the time the accounts were read.
+         * @throws IOException if the snapshot could not be written.
+         */
+        public void finish(final int major, final int minor, @NotNull final Watermark watermark) throws IOException {
+            flush();
+
+            final ByteBuffer header = ByteBuffer.allocate(HEADER);
+
+            header.putInt(MAGIC).putInt(VERSION).putInt(major).putInt(minor);
+            header.putLong(watermark.transaction()).putLong(watermark.account()).putLong(watermark.count());
+            header.putLong(watermark.modification());
+            header.putInt(this.count).putLong(this.length).putLong(this.checksum.getValue());
+            header.flip();
+
+            while (header.hasRemaining()) {
+                this.channel.write(header, HEADER - header.remaining());
+            }
+
+            this.channel.force(true);
+            this.channel.close();
+
+            // replace the previous snapshot at once, so that a crash can not leave a partially written snapshot behind
+            Files.move(this.temporary, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.channel.isOpen()) {
+                this.channel.close();
+                Files.deleteIfExists(this.temporary);
+            }
+        }
+
+        private void flush() throws IOException {
+            this.buffer.flip();
+            this.checksum.update(this.buffer.duplicate());
+            this.length += this.buffer.remaining();
+
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+
+            this.buffer.clear();
+        }
+    }
+}
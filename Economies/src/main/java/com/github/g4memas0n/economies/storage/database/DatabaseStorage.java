@@ -3,42 +3,97 @@ package com.github.g4memas0n.economies.storage.database;
 import com.github.g4memas0n.cores.database.DatabaseManager;
 import com.github.g4memas0n.cores.database.query.BatchLoader;
 import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.economy.Leaderboard;
+import com.github.g4memas0n.economies.economy.Money;
+import com.github.g4memas0n.economies.economy.Transaction;
 import com.github.g4memas0n.economies.storage.AccountStorage;
+import com.github.g4memas0n.economies.storage.InsufficientBalanceException;
 import com.github.g4memas0n.economies.storage.StorageException;
 import com.github.g4memas0n.economies.storage.StorageManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 
 public class DatabaseStorage extends DatabaseManager implements StorageManager {
 
     private static final int MAJOR = 1;
-    private static final int MINOR = 0;
+    private static final int MINOR = 6;
+
+    private static final int CHUNK = 50;
 
     protected final Economies plugin;
+    protected final DatabaseLedger ledger;
+    protected final StatementCache statements;
+    protected final ConcurrencyControl control;
+    protected final UniqueIdIndex index;
+    protected final Path snapshot;
+    protected final int stripes;
+    protected volatile Leaderboard leaderboard;
+
+    private volatile DatabaseAccount global;
+    private volatile DatabaseSnapshot names;
+    private volatile DatabaseSnapshot balances;
 
     public DatabaseStorage(@NotNull final Economies plugin) {
-        super("resources/queries/queries");
+        this(plugin, "resources/queries/queries");
+    }
+
+    protected DatabaseStorage(@NotNull final Economies plugin, @NotNull final String queries) {
+        super(queries);
         this.plugin = plugin;
+        this.ledger = new DatabaseLedger(this, plugin.getSettings().getLedgerSize(), plugin.getSettings().getLedgerLatency());
+        // the number of stripes is fixed until the next restart, as reloaded stripes would not exist in the database
+        this.stripes = plugin.getSettings().getBankStripes();
+        this.statements = plugin.getSettings().isDatabaseStatementCache() ? new StatementCache() : null;
+        this.control = new ConcurrencyControl(plugin.getSettings().isDatabaseOptimistic(),
+                plugin.getSettings().getDatabaseRetryAttempts(), plugin.getSettings().getDatabaseRetryBackoff());
+        this.index = plugin.getSettings().isDatabaseIndex() ? new UniqueIdIndex(plugin.getSettings().isDatabaseIndexDirect()) : null;
+        this.snapshot = plugin.getSettings().isDatabaseSnapshot() ? plugin.getDataFolder().toPath().resolve("accounts.snapshot") : null;
+    }
+
+    public @NotNull DatabaseLedger getLedger() {
+        return this.ledger;
+    }
+
+    @Override
+    public void setLeaderboard(@Nullable final Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
     }
 
     @Override
     public void initialize() throws SQLException {
         Statement statement;
         ResultSet result;
+        int major;
+        int minor;
 
         try (Connection connection = fetch()) {
             statement = connection.createStatement();
 
             // create tables
-            BatchLoader.getBatch("resources/batches/tables-create.sql", statement);
+            BatchLoader.getBatch(batch("tables-create.sql"), statement);
             for (final int value : statement.executeBatch()) {
                 if (value == Statement.EXECUTE_FAILED) {
                     throw new SQLException("could not create tables");
@@ -46,82 +101,328 @@ public class DatabaseStorage extends DatabaseManager implements StorageManager {
             }
             statement.clearBatch();
 
+            // initialize tables
+            BatchLoader.getBatch(batch("tables-initialize.sql"), statement);
+            for (final int value : statement.executeBatch()) {
+                if (value == Statement.EXECUTE_FAILED) {
+                    throw new SQLException("could not initialize tables");
+                }
+            }
+            statement.clearBatch();
+
             // check schema version
             result = statement.executeQuery(query("version.get"));
             if (result.next()) {
-                int major = result.getInt("version_major");
-                int minor = result.getInt("version_minor");
+                major = result.getInt("version_major");
+                minor = result.getInt("version_minor");
 
-                if (major > MAJOR || minor > MINOR) {
+                if (major != MAJOR || minor > MINOR) {
                     throw new SQLException("unknown schema version");
                 }
             }  else {
                 throw new SQLException("could not fetch schema version");
             }
+            result.close();
 
-            // initialize tables
-            BatchLoader.getBatch("resources/batches/tables-initialize.sql", statement);
-            for (final int value : statement.executeBatch()) {
-                if (value == Statement.EXECUTE_FAILED) {
-                    throw new SQLException("could not initialize tables");
+            // migrate tables, each migration runs exactly once as the schema version gets updated with it
+            while (minor < MINOR) {
+                BatchLoader.getBatch(batch("migrations/" + major + "." + (minor + 1) + ".sql"), statement);
+                for (final int value : statement.executeBatch()) {
+                    if (value == Statement.EXECUTE_FAILED) {
+                        throw new SQLException("could not migrate tables");
+                    }
                 }
+                statement.clearBatch();
+
+                final PreparedStatement update = prepare(connection, "version.set");
+                update.setInt(1, major);
+                update.setInt(2, ++minor);
+                update.executeUpdate();
+                release(update);
+
+                Economies.info("Migrated database schema to version %d.%d", major, minor);
+            }
+
+            final DatabaseSnapshot snapshot = this.snapshot != null ? restoreSnapshot(connection) : null;
+
+            if (this.index != null) {
+                indexAccounts(connection, snapshot);
             }
-            statement.clearBatch();
         } catch (IOException ex) {
 
             throw new SQLException("could not read batches", ex);
         }
+
+        this.ledger.start();
+    }
+
+    @Override
+    public void shutdown() {
+        // drains the queued transactions, so that the ledger is complete when the plugin gets disabled
+        this.ledger.stop();
+
+        if (this.snapshot != null) {
+            writeSnapshot();
+        }
+
+        if (this.statements != null) {
+            Economies.debug("Statement cache served %d of %d statements", this.statements.getHitCount(),
+                    this.statements.getHitCount() + this.statements.getMissCount());
+            this.statements.clear();
+        }
+    }
+
+    /*
+     * Methods for the statement handling of the database:
+     */
+
+    @Override
+    public @NotNull Connection fetch() throws SQLException {
+        final long start = this.plugin.getMetrics().start();
+        final Connection connection = super.fetch();
+
+        // only the wait for the pool is timed, as the statement cache does not block
+        this.plugin.getMetrics().stop("database.connection.acquire", start);
+
+        if (this.statements != null) {
+            this.statements.acquire(connection);
+        }
+
+        return connection;
+    }
+
+    /**
+     * Prepares the statement for the specified query {@code key}, which will be reused if the statement cache is
+     * enabled.<br>
+     * Statements prepared by this method must be released through {@link #release(Statement)}.
+     *
+     * @param connection the connection to prepare the statement on.
+     * @param key the key of the query in the queries file.
+     * @return the prepared statement.
+     * @throws SQLException if the statement could not be prepared.
+     */
+    @Override
+    public @NotNull PreparedStatement prepare(@NotNull final Connection connection,
+                                              @NotNull final String key) throws SQLException {
+        if (this.statements == null) {
+            return super.prepare(connection, key);
+        }
+
+        return this.statements.prepare(connection, key, physical -> super.prepare(physical, key));
+    }
+
+    /**
+     * Releases the specified {@code statement}, which resets it if it is cached and closes it otherwise.
+     *
+     * @param statement the statement to release.
+     */
+    public void release(@NotNull final Statement statement) {
+        if (this.statements == null || !this.statements.release(statement)) {
+            close(statement);
+        }
+    }
+
+    public long getStatementHitCount() {
+        return this.statements != null ? this.statements.getHitCount() : 0;
+    }
+
+    public long getStatementMissCount() {
+        return this.statements != null ? this.statements.getMissCount() : 0;
+    }
+
+    public long getRetryCount() {
+        return this.control.getRetryCount();
+    }
+
+    public long getConflictCount() {
+        return this.control.getConflictCount();
+    }
+
+    public long getDeadlockCount() {
+        return this.control.getDeadlockCount();
+    }
+
+    public long getRetryFailureCount() {
+        return this.control.getFailureCount();
+    }
+
+    public int getIndexSize() {
+        return this.index != null ? this.index.size() : 0;
+    }
+
+    public long getIndexMemoryUsage() {
+        return this.index != null ? this.index.getMemoryUsage() : 0;
+    }
+
+    /*
+     * Methods for the dialect and write handling of the database:
+     */
+
+    /**
+     * Returns the path of the batch file with the specified {@code name} for the dialect of this database.
+     *
+     * @param name the name of the batch file, relative to the batch folder.
+     * @return the resource path of the batch file.
+     */
+    protected @NotNull String batch(@NotNull final String name) {
+        return "resources/batches/" + name;
+    }
+
+    /**
+     * Configures the specified {@code statement} to stream its rows, instead of loading all rows of its result at once.
+     * <p>
+     *     MySQL Connector/J buffers the whole result unless the fetch size is {@link Integer#MIN_VALUE}. While a result
+     *     is streamed, no other statement can run on its connection until all rows were read.
+     * </p>
+     *
+     * @param statement the statement that reads a large result.
+     * @throws SQLException if the statement could not be configured.
+     */
+    protected void stream(@NotNull final PreparedStatement statement) throws SQLException {
+        statement.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    /**
+     * Sets the designated parameter to the specified monetary amount in {@code cents}.<br>
+     * Databases that can not store decimals exactly override this to store the amount as integer cents.
+     *
+     * @param statement the statement to set the parameter on.
+     * @param index the index of the parameter.
+     * @param cents the amount to set, in cents.
+     * @throws SQLException if the parameter could not be set.
+     */
+    protected void setCents(@NotNull final PreparedStatement statement, final int index,
+                            final long cents) throws SQLException {
+        statement.setBigDecimal(index, Money.toDecimal(cents));
+    }
+
+    /**
+     * Returns the monetary amount of the designated {@code column} of the current row in cents.<br>
+     * A null column is returned as zero cents, so that callers need to check {@link ResultSet#wasNull()} if the
+     * column is nullable. Databases that store amounts as integer cents override this like {@link
+     * #setCents(PreparedStatement, int, long)}.
+     *
+     * @param result the result to read the column from.
+     * @param column the label of the column.
+     * @return the amount of the column in cents, or zero if the column is null.
+     * @throws SQLException if the column could not be read.
+     */
+    protected long getCents(@NotNull final ResultSet result, @NotNull final String column) throws SQLException {
+        final BigDecimal amount = result.getBigDecimal(column);
+
+        return amount != null ? Money.toCents(amount) : 0;
+    }
+
+    /**
+     * Returns whether the current thread is allowed to write to this database.<br>
+     * Databases that serialize their writes will only allow their own writer thread, other databases only allow
+     * threads that run within the retry scope of their concurrency control.
+     *
+     * @return true if the current thread may write directly.
+     */
+    protected boolean isWriter() {
+        return this.control.isActive();
+    }
+
+    /**
+     * Runs the specified {@code task} on the writer of this database and waits for its completion.<br>
+     * The task will be run again if it was rolled back because of a deadlock or a conflicting update.
+     *
+     * @param task the task that writes to this database.
+     * @return the result of the task.
+     * @throws StorageException if the task failed.
+     */
+    protected <T> T write(@NotNull final WriteTask<T> task) throws StorageException {
+        return this.control.execute(task);
+    }
+
+    @FunctionalInterface
+    protected interface WriteTask<T> {
+
+        T run() throws StorageException;
     }
 
     /*
      * Methods implementing the StorageManager interface:
      */
 
+    @Override
     public @NotNull AccountStorage getGlobal() throws StorageException {
+        if (this.global != null) {
+            // the stripes only need to be created once, as their number is fixed until the next restart
+            return this.global;
+        }
+
+        if (!isWriter()) {
+            return write(this::getGlobal);
+        }
+
+        final int stripes = this.stripes;
+        Connection connection = null;
         PreparedStatement statement;
         ResultSet result;
+        long balance;
         int count;
 
-        try (Connection connection = fetch()) {
-            statement = prepare(connection, "account.balance.get");
-            statement.setInt(1, 1);
+        try {
+            connection = fetch();
+            connection.setAutoCommit(false);
+
+            statement = prepare(connection, "bank.stripe.count");
             result = statement.executeQuery();
+            count = result.next() ? result.getInt(1) : 0;
+            release(statement);
 
-            if (!result.next()) {
-                close(statement);
-                Economies.log(Level.SEVERE, "Failed to query balance for global account");
-                throw new StorageException("failed to find global account");
-            }
+            if (count == 0) {
+                statement = prepare(connection, "account.balance.get");
+                statement.setInt(1, 1);
+                result = statement.executeQuery();
 
-            // initialize balance of global bank account if not already set
-            if (result.getBigDecimal("balance") == null) {
-                close(statement);
+                if (!result.next()) {
+                    release(statement);
+                    Economies.log(Level.SEVERE, "Failed to query balance for global account");
+                    throw new StorageException("failed to find global account");
+                }
 
-                statement = prepare(connection, "account.balance.set");
-                statement.setBigDecimal(1, this.plugin.getSettings().getBankBalance());
-                statement.setInt(2, 1);
-                count = statement.executeUpdate();
+                // initialize balance of global bank, taking over the balance of the global account if already set
+                balance = getCents(result, "balance");
 
-                if (count == 0) {
-                    close(statement);
-                    Economies.log(Level.SEVERE, "Failed to update balance for global account");
-                    throw new StorageException("failed to find global account");
+                if (result.wasNull()) {
+                    balance = Money.toCents(this.plugin.getSettings().getBankBalance());
                 }
+
+                release(statement);
+                createStripes(connection, balance, stripes);
+            } else if (count < stripes) {
+                // the number of stripes was increased, existing stripes will keep their balance
+                createStripes(connection, 0, stripes);
+            }
+
+            connection.commit();
+            close(connection);
+        } catch (StorageException | SQLException ex) {
+            if (connection != null) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+
+                }
+                close(connection);
             }
 
-            close(statement);
-        } catch (SQLException ex) {
             Economies.warn("Could not query global account: %s", ex.getMessage());
             throw new StorageException("could not query global account", ex);
         }
 
-        return new DatabaseAccount(this, 1);
+        this.global = new DatabaseAccount(this, 1, new UUID(0, 0));
+        return this.global;
     }
 
     @Override
     public @Nullable AccountStorage getAccount(@NotNull final String name) throws StorageException {
         PreparedStatement statement;
         ResultSet result;
+        UUID uniqueId = null;
         int id = 0;
 
         try (Connection connection = fetch()) {
@@ -137,9 +438,10 @@ public class DatabaseStorage extends DatabaseManager implements StorageManager {
                 }
 
                 id = result.getInt("id");
+                uniqueId = new UUID(result.getLong("uuid_most"), result.getLong("uuid_least"));
             }
 
-            close(statement);
+            release(statement);
         } catch (SQLException ex) {
             Economies.warn("Could not query account for name %s: %s", name, ex.getMessage());
             throw new StorageException("could not query account", ex);
@@ -147,7 +449,7 @@ public class DatabaseStorage extends DatabaseManager implements StorageManager {
 
         if (id > 0) {
             Economies.debug("Queried account (%d) for name %s", id, name);
-            return new DatabaseAccount(this, id);
+            return new DatabaseAccount(this, id, uniqueId);
         }
 
         return null;
@@ -155,9 +457,14 @@ public class DatabaseStorage extends DatabaseManager implements StorageManager {
 
     @Override
     public @Nullable DatabaseAccount getAccount(@NotNull final UUID uniqueId) throws StorageException {
+        int id = this.index != null ? this.index.get(uniqueId) : 0;
+
+        if (id > 0) {
+            return new DatabaseAccount(this, id, uniqueId);
+        }
+
         PreparedStatement statement;
         ResultSet result;
-        int id = 0;
 
         try (Connection connection = fetch()) {
             statement = prepare(connection, "account.get");
@@ -169,15 +476,163 @@ public class DatabaseStorage extends DatabaseManager implements StorageManager {
                 // an account for the unique-id has been found
                 id = result.getInt("id");
                 Economies.debug("Queried account (%d) for uuid %s", id, uniqueId);
+
+                // the account was created by another server or without updating the index
+                if (this.index != null) {
+                    this.index.put(uniqueId, id);
+                }
             }
 
-            close(statement);
+            release(statement);
         } catch (SQLException ex) {
             Economies.warn("Could not query account for uuid %s: %s", uniqueId, ex.getMessage());
             throw new StorageException("could not query account", ex);
         }
 
-        return id > 0 ? new DatabaseAccount(this, id) : null;
+        return id > 0 ? new DatabaseAccount(this, id, uniqueId) : null;
+    }
+
+    @Override
+    public @NotNull Map<UUID, AccountStorage> getAccounts(@NotNull final Collection<UUID> uniqueIds) throws StorageException {
+        final Map<UUID, AccountStorage> accounts = new HashMap<>();
+        final List<UUID> remaining = new ArrayList<>(new LinkedHashSet<>(uniqueIds));
+
+        if (remaining.isEmpty()) {
+            return accounts;
+        }
+
+        if (this.index != null) {
+            final Iterator<UUID> iterator = remaining.iterator();
+
+            while (iterator.hasNext()) {
+                final UUID uniqueId = iterator.next();
+                final int id = this.index.get(uniqueId);
+
+                if (id > 0) {
+                    accounts.put(uniqueId, new DatabaseAccount(this, id, uniqueId));
+                    iterator.remove();
+                }
+            }
+
+            // only query the unique-ids that are unknown to the index, as they may have been created elsewhere
+            if (remaining.isEmpty()) {
+                return accounts;
+            }
+        }
+
+        PreparedStatement statement;
+        ResultSet result;
+
+        try (Connection connection = fetch()) {
+            statement = many(connection, "account.get.many");
+
+            for (int offset = 0; offset < remaining.size(); offset += CHUNK) {
+                final List<UUID> chunk = remaining.subList(offset, Math.min(offset + CHUNK, remaining.size()));
+
+                for (int index = 0; index < CHUNK; index++) {
+                    final UUID uniqueId = chunk.get(Math.min(index, chunk.size() - 1));
+
+                    statement.setLong(index * 2 + 1, uniqueId.getMostSignificantBits());
+                    statement.setLong(index * 2 + 2, uniqueId.getLeastSignificantBits());
+                }
+
+                result = statement.executeQuery();
+
+                while (result.next()) {
+                    final UUID uniqueId = new UUID(result.getLong("uuid_most"), result.getLong("uuid_least"));
+                    final int id = result.getInt("id");
+
+                    accounts.put(uniqueId, new DatabaseAccount(this, id, uniqueId));
+
+                    if (this.index != null) {
+                        this.index.put(uniqueId, id);
+                    }
+                }
+
+                result.close();
+            }
+
+            release(statement);
+        } catch (SQLException ex) {
+            Economies.warn("Could not query %d accounts: %s", remaining.size(), ex.getMessage());
+            throw new StorageException("could not query accounts", ex);
+        }
+
+        Economies.debug("Queried %d of %d accounts", accounts.size(), remaining.size());
+        return accounts;
+    }
+
+    @Override
+    public void forEachAccount(@NotNull final BiConsumer<UUID, String> consumer) throws StorageException {
+        final DatabaseSnapshot snapshot = this.names;
+
+        // the snapshot is only valid until the first change, so the names are restored from it only once on startup
+        if (snapshot != null) {
+            this.names = null;
+            snapshot.forEachAccount(consumer);
+            Economies.debug("Restored names of %d accounts from snapshot", snapshot.size());
+            return;
+        }
+
+        PreparedStatement statement;
+        ResultSet result;
+        int count = 0;
+
+        try (Connection connection = fetch()) {
+            statement = prepare(connection, "account.names");
+            stream(statement);
+            result = statement.executeQuery();
+
+            while (result.next()) {
+                consumer.accept(new UUID(result.getLong("uuid_most"), result.getLong("uuid_least")), result.getString("identifier"));
+                count++;
+            }
+
+            release(statement);
+        } catch (SQLException ex) {
+            Economies.warn("Could not query account names: %s", ex.getMessage());
+            throw new StorageException("could not query account names", ex);
+        }
+
+        Economies.debug("Queried names of %d accounts", count);
+    }
+
+    @Override
+    public void forEachBalance(@NotNull final BiConsumer<UUID, BigDecimal> consumer) throws StorageException {
+        final DatabaseSnapshot snapshot = this.balances;
+
+        // the snapshot is only valid until the first change, so the balances are restored from it only once on startup
+        if (snapshot != null) {
+            this.balances = null;
+            snapshot.forEachBalance(consumer);
+            Economies.debug("Restored balances of %d accounts from snapshot", snapshot.size());
+            return;
+        }
+
+        PreparedStatement statement;
+        ResultSet result;
+        int count = 0;
+
+        try (Connection connection = fetch()) {
+            statement = prepare(connection, "account.balances");
+            stream(statement);
+            result = statement.executeQuery();
+
+            while (result.next()) {
+                final long balance = getCents(result, "balance");
+
+                consumer.accept(new UUID(result.getLong("uuid_most"), result.getLong("uuid_least")),
+                        result.wasNull() ? null : Money.toDecimal(balance));
+                count++;
+            }
+
+            release(statement);
+        } catch (SQLException ex) {
+            Economies.warn("Could not query account balances: %s", ex.getMessage());
+            throw new StorageException("could not query account balances", ex);
+        }
+
+        Economies.debug("Queried balances of %d accounts", count);
     }
 
     @Override
@@ -192,13 +647,13 @@ public class DatabaseStorage extends DatabaseManager implements StorageManager {
             result = statement.executeQuery();
 
             if (!result.next()) {
-                close(statement);
+                release(statement);
                 Economies.log(Level.SEVERE, "Failed to check for account with name %s", name);
                 throw new StorageException("failed to check for account");
             }
 
             count = result.getInt(1);
-            close(statement);
+            release(statement);
         } catch (SQLException ex) {
             Economies.warn("Could not check for account with name %s: %s", name, ex.getMessage());
             throw new StorageException("could not check for account", ex);
@@ -209,6 +664,11 @@ public class DatabaseStorage extends DatabaseManager implements StorageManager {
 
     @Override
     public boolean hasAccount(@NotNull final UUID uniqueId) throws StorageException {
+        if (this.index != null) {
+            // a miss is checked by querying the account, which also adds it to the index if it exists
+            return this.index.contains(uniqueId) || getAccount(uniqueId) != null;
+        }
+
         PreparedStatement statement;
         ResultSet result;
         boolean exist;
@@ -220,13 +680,13 @@ public class DatabaseStorage extends DatabaseManager implements StorageManager {
             result = statement.executeQuery();
 
             if (!result.next()) {
-                close(statement);
+                release(statement);
                 Economies.log(Level.SEVERE, "Failed to check for account with uuid %s", uniqueId);
                 throw new StorageException("failed to check for account");
             }
 
             exist = result.getBoolean(1);
-            close(statement);
+            release(statement);
         } catch (SQLException ex) {
             Economies.warn("Could not check for account with uuid %s: %s", uniqueId, ex.getMessage());
             throw new StorageException("could not check for account", ex);
@@ -237,41 +697,61 @@ public class DatabaseStorage extends DatabaseManager implements StorageManager {
 
     @Override
     public boolean createAccount(@NotNull final UUID uniqueId, @NotNull final String name) throws StorageException {
+        if (!isWriter()) {
+            return write(() -> createAccount(uniqueId, name));
+        }
+
+        if (this.index != null && this.index.contains(uniqueId)) {
+            return false;
+        }
+
         PreparedStatement statement;
         ResultSet result;
         int created;
 
         try (Connection connection = fetch()) {
-            statement = prepare(connection, "account.exist");
+            statement = prepare(connection, "account.get");
             statement.setLong(1, uniqueId.getMostSignificantBits());
             statement.setLong(2, uniqueId.getLeastSignificantBits());
             result = statement.executeQuery();
 
-            if (!result.next()) {
-                close(statement);
-                Economies.log(Level.SEVERE, "Failed to check for account with uuid %s", uniqueId);
-                throw new StorageException("failed to check for account");
-            }
-
-            if (!result.getBoolean(1)) {
-                close(statement);
+            if (result.next()) {
+                // the account already exists, but may have been created without updating the index
+                if (this.index != null) {
+                    this.index.put(uniqueId, result.getInt("id"));
+                }
+            } else {
+                release(statement);
                 statement = prepare(connection, "account.create");
                 statement.setLong(1, uniqueId.getMostSignificantBits());
                 statement.setLong(2, uniqueId.getLeastSignificantBits());
                 statement.setString(3, name);
                 created = statement.executeUpdate();
-                close(statement);
+                release(statement);
 
                 if (created == 0) {
                     Economies.log(Level.SEVERE, "Failed to insert account for uuid %s", uniqueId);
                     throw new StorageException("failed to insert account");
                 }
 
+                if (this.index != null) {
+                    statement = prepare(connection, "account.get");
+                    statement.setLong(1, uniqueId.getMostSignificantBits());
+                    statement.setLong(2, uniqueId.getLeastSignificantBits());
+                    result = statement.executeQuery();
+
+                    if (result.next()) {
+                        this.index.put(uniqueId, result.getInt("id"));
+                    }
+
+                    release(statement);
+                }
+
                 Economies.debug("Created account for uuid %s", uniqueId);
                 return true;
             }
 
-            close(statement);
+            release(statement);
         } catch (SQLException ex) {
             Economies.warn("Could not create account for uuid %s: %s", uniqueId, ex.getMessage());
             throw new StorageException("could not create account", ex);
@@ -280,19 +760,147 @@ public class DatabaseStorage extends DatabaseManager implements StorageManager {
         return false;
     }
 
+    @Override
+    public @NotNull Map<UUID, AccountStorage> provideAccounts(@NotNull final Map<UUID, String> names) throws StorageException {
+        if (!isWriter()) {
+            return write(() -> provideAccounts(names));
+        }
+
+        final long initial = Money.toCents(this.plugin.getSettings().getInitialBalance());
+        final Map<UUID, AccountStorage> accounts = new HashMap<>();
+        final Map<Integer, UUID> initialized = new HashMap<>();
+        final Map<Integer, String> renamed = new HashMap<>();
+        final List<UUID> remaining = new ArrayList<>(names.keySet());
+        final DatabaseAccount global = (DatabaseAccount) getGlobal();
+        Connection connection = null;
+        PreparedStatement statement;
+
+        if (remaining.isEmpty()) {
+            return accounts;
+        }
+
+        try {
+            connection = fetch();
+            connection.setAutoCommit(false);
+
+            // resolve the existing accounts first, so that only the missing accounts draw new ids on insert
+            resolveAccounts(connection, remaining, names, accounts, initialized, renamed);
+            remaining.removeIf(accounts::containsKey);
+
+            if (!remaining.isEmpty()) {
+                statement = prepare(connection, "account.provide");
+
+                for (final UUID uniqueId : remaining) {
+                    statement.setLong(1, uniqueId.getMostSignificantBits());
+                    statement.setLong(2, uniqueId.getLeastSignificantBits());
+                    statement.setString(3, names.get(uniqueId));
+                    statement.addBatch();
+                }
+
+                statement.executeBatch();
+                release(statement);
+
+                // accounts that were inserted concurrently are ignored by the insert and resolved like the others
+                resolveAccounts(connection, remaining, names, accounts, initialized, renamed);
+            }
+
+            if (!remaining.isEmpty() || !renamed.isEmpty()) {
+                markModified(connection);
+            }
+
+            if (!renamed.isEmpty()) {
+                statement = prepare(connection, "account.name.set");
+
+                for (final Map.Entry<Integer, String> entry : renamed.entrySet()) {
+                    statement.setString(1, entry.getValue());
+                    statement.setInt(2, entry.getKey());
+                    statement.addBatch();
+                }
+
+                statement.executeBatch();
+                release(statement);
+            }
+
+            if (!initialized.isEmpty()) {
+                // initializes the balances of the new accounts, instead of initializing them lazily one by one
+                statement = prepare(connection, "account.balance.initialize");
+
+                for (final int id : initialized.keySet()) {
+                    setCents(statement, 1, initial);
+                    statement.setInt(2, id);
+                    statement.addBatch();
+                }
+
+                statement.executeBatch();
+                release(statement);
+
+                if (initial > 0) {
+                    final Map<Integer, Long> transactions = new HashMap<>();
+
+                    for (final int id : initialized.keySet()) {
+                        transactions.put(id, initial);
+                    }
+
+                    global.decrementGlobal(connection, transactions, true);
+                    this.ledger.log(connection, 1, transactions);
+                }
+            }
+
+            connection.commit();
+            close(connection);
+        } catch (StorageException | SQLException ex) {
+            if (connection != null) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+
+                }
+                close(connection);
+            }
+
+            Economies.warn("Could not provide %d accounts: %s", names.size(), ex.getMessage());
+            throw new StorageException("could not provide accounts", ex);
+        }
+
+        final Leaderboard leaderboard = this.leaderboard;
+
+        if (leaderboard != null) {
+            for (final UUID uniqueId : initialized.values()) {
+                leaderboard.setCents(uniqueId, initial);
+            }
+        }
+
+        Economies.debug("Provided %d accounts, initialized %d of them", accounts.size(), initialized.size());
+        return accounts;
+    }
+
     @Override
     public boolean deleteAccount(@NotNull final UUID uniqueId) throws StorageException {
+        if (!isWriter()) {
+            return write(() -> deleteAccount(uniqueId));
+        }
+
         PreparedStatement statement;
         int result;
 
         try (Connection connection = fetch()) {
+            markModified(connection);
+
             statement = prepare(connection, "account.delete");
             statement.setLong(1, uniqueId.getMostSignificantBits());
             statement.setLong(2, uniqueId.getLeastSignificantBits());
             result = statement.executeUpdate();
-            close(statement);
+            release(statement);
 
             if (result > 0) {
+                if (this.index != null) {
+                    this.index.remove(uniqueId);
+                }
+
+                if (this.leaderboard != null) {
+                    this.leaderboard.remove(uniqueId);
+                }
+
                 Economies.debug("Deleted account with uuid %s", uniqueId);
                 return true;
             }
@@ -303,4 +911,395 @@ public class DatabaseStorage extends DatabaseManager implements StorageManager {
 
         return false;
     }
+
+    @Override
+    public @NotNull Map<UUID, Boolean> depositBalances(@NotNull final Map<UUID, BigDecimal> amounts,
+                                                       final boolean negative) throws StorageException {
+        if (!isWriter()) {
+            return write(() -> depositBalances(amounts, negative));
+        }
+
+        final long initial = Money.toCents(this.plugin.getSettings().getInitialBalance());
+        final Map<UUID, Boolean> results = new HashMap<>();
+        final Map<Integer, Long> payouts = new HashMap<>();
+        final Map<Integer, UUID> recipients = new HashMap<>();
+        final Set<Integer> initialized = new HashSet<>();
+        final DatabaseAccount global = (DatabaseAccount) getGlobal();
+        Connection connection = null;
+        PreparedStatement statement;
+        ResultSet result;
+        long total = 0;
+
+        for (final UUID uniqueId : amounts.keySet()) {
+            results.put(uniqueId, false);
+        }
+
+        try {
+            connection = fetch();
+
+            statement = prepare(connection, "payout.create");
+            statement.executeUpdate();
+            release(statement);
+
+            connection.setAutoCommit(false);
+
+            // the temporary table is bound to the connection and may still contain rows of a previous payout
+            statement = prepare(connection, "payout.clear");
+            statement.executeUpdate();
+            release(statement);
+
+            statement = prepare(connection, "payout.insert");
+
+            for (final Map.Entry<UUID, BigDecimal> entry : amounts.entrySet()) {
+                statement.setLong(1, entry.getKey().getMostSignificantBits());
+                statement.setLong(2, entry.getKey().getLeastSignificantBits());
+                setCents(statement, 3, Money.toCents(entry.getValue()));
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+            release(statement);
+
+            statement = prepare(connection, "payout.resolve");
+            result = statement.executeQuery();
+
+            while (result.next()) {
+                final int id = result.getInt("id");
+
+                if (result.getBoolean("uninitialized")) {
+                    initialized.add(id);
+                }
+
+                final UUID uniqueId = new UUID(result.getLong("uuid_most"), result.getLong("uuid_least"));
+                final long amount = getCents(result, "amount");
+
+                recipients.put(id, uniqueId);
+                payouts.put(id, amount);
+                total = Math.addExact(total, amount);
+                results.put(uniqueId, true);
+            }
+
+            release(statement);
+
+            if (!payouts.isEmpty()) {
+                if (!initialized.isEmpty()) {
+                    statement = prepare(connection, "payout.initialize");
+                    setCents(statement, 1, initial);
+                    statement.executeUpdate();
+                    release(statement);
+
+                    if (initial > 0) {
+                        final Map<Integer, Long> transactions = new HashMap<>();
+
+                        for (final int id : initialized) {
+                            transactions.put(id, initial);
+                        }
+
+                        global.decrementGlobal(connection, transactions, true);
+                        this.ledger.log(connection, 1, transactions);
+                    }
+                }
+
+                // credit all recipients at once and debit the stripes of the global account once per stripe
+                statement = prepare(connection, "payout.apply");
+                statement.executeUpdate();
+                release(statement);
+
+                global.decrementGlobal(connection, payouts, negative);
+                this.ledger.log(connection, 1, payouts);
+            }
+
+            statement = prepare(connection, "payout.clear");
+            statement.executeUpdate();
+            release(statement);
+
+            connection.commit();
+            close(connection);
+        } catch (StorageException | SQLException ex) {
+            if (connection != null) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+
+                }
+                close(connection);
+            }
+
+            if (ex instanceof InsufficientBalanceException cause) {
+                throw cause;
+            }
+
+            Economies.warn("Could not deposit onto %d accounts: %s", amounts.size(), ex.getMessage());
+            throw new StorageException("could not deposit onto accounts", ex);
+        }
+
+        final Leaderboard leaderboard = this.leaderboard;
+
+        if (leaderboard != null) {
+            for (final Map.Entry<Integer, Long> payout : payouts.entrySet()) {
+                if (initialized.contains(payout.getKey())) {
+                    leaderboard.setCents(recipients.get(payout.getKey()), initial + payout.getValue());
+                } else {
+                    leaderboard.addCents(recipients.get(payout.getKey()), payout.getValue());
+                }
+            }
+        }
+
+        Economies.debug("Deposited %s onto %d of %d accounts", Money.toDecimal(total), payouts.size(), amounts.size());
+        return results;
+    }
+
+    @Override
+    public @NotNull List<Transaction> getTransactions(@NotNull final UUID uniqueId, @Nullable final Transaction after,
+                                                      final int limit) throws StorageException {
+        final DatabaseAccount account = getAccount(uniqueId);
+        final List<Transaction> transactions = new ArrayList<>(limit);
+        PreparedStatement statement;
+        ResultSet result;
+        int index = 1;
+
+        if (account == null) {
+            return transactions;
+        }
+
+        try (Connection connection = fetch()) {
+            statement = prepare(connection, after != null ? "transaction.history.after" : "transaction.history");
+
+            // bind the sent and the received branch, each branch seeks directly to the cursor by its index
+            for (int branch = 0; branch < 2; branch++) {
+                statement.setInt(index++, account.id);
+
+                if (after != null) {
+                    statement.setTimestamp(index++, Timestamp.from(after.getTimestamp()));
+                    statement.setTimestamp(index++, Timestamp.from(after.getTimestamp()));
+                    statement.setLong(index++, after.getId());
+                }
+
+                statement.setInt(index++, limit);
+            }
+
+            statement.setInt(index, limit);
+            result = statement.executeQuery();
+
+            while (result.next()) {
+                transactions.add(new Transaction(result.getLong("id"), readUniqueId(result, "sender"),
+                        readUniqueId(result, "receiver"), Money.toDecimal(getCents(result, "amount")),
+                        result.getTimestamp("timestamp").toInstant()));
+            }
+
+            release(statement);
+        } catch (SQLException ex) {
+            Economies.warn("Could not query transactions for uuid %s: %s", uniqueId, ex.getMessage());
+            throw new StorageException("could not query transactions", ex);
+        }
+
+        return transactions;
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private void indexAccounts(@NotNull final Connection connection, @Nullable final DatabaseSnapshot snapshot) throws SQLException {
+        if (snapshot != null) {
+            snapshot.forEachId(this.index::put);
+        } else {
+            final PreparedStatement statement = prepare(connection, "account.ids");
+            final ResultSet result;
+
+            stream(statement);
+            result = statement.executeQuery();
+
+            while (result.next()) {
+                this.index.put(new UUID(result.getLong("uuid_most"), result.getLong("uuid_least")), result.getInt("id"));
+            }
+
+            release(statement);
+        }
+
+        // the global account is neither part of the snapshot nor of the queried accounts, but must be found by its uuid
+        this.index.put(new UUID(0, 0), 1);
+
+        final int size = this.index.size();
+        final long usage = this.index.getMemoryUsage();
+
+        Economies.info("Indexed ids of %d accounts using %d KiB %s memory (%.1f bytes per account)", size, usage / 1024,
+                this.index.isDirect() ? "off-heap" : "heap", size > 0 ? (double) usage / size : 0D);
+    }
+
+    private @NotNull DatabaseSnapshot.Watermark queryWatermark(@NotNull final Connection connection) throws SQLException {
+        // queued transactions are counted, as they only move the highest transaction id once the ledger wrote them
+        final PreparedStatement statement = prepare(connection, "snapshot.watermark");
+        final ResultSet result = statement.executeQuery();
+
+        if (!result.next()) {
+            release(statement);
+            throw new SQLException("could not fetch high-water mark");
+        }
+
+        final DatabaseSnapshot.Watermark watermark = new DatabaseSnapshot.Watermark(result.getLong("transactions"),
+                result.getLong("accounts"), result.getLong("count"), result.getLong("modifications"));
+
+        release(statement);
+        return watermark;
+    }
+
+    private @Nullable DatabaseSnapshot restoreSnapshot(@NotNull final Connection connection) throws SQLException {
+        DatabaseSnapshot snapshot;
+
+        try {
+            snapshot = DatabaseSnapshot.map(this.snapshot, MAJOR, MINOR, queryWatermark(connection));
+        } catch (IOException ex) {
+            Economies.warn("Could not read account snapshot: %s", ex.getMessage());
+            snapshot = null;
+        }
+
+        if (snapshot != null) {
+            this.names = snapshot;
+            this.balances = snapshot;
+            Economies.info("Restoring %d accounts from snapshot", snapshot.size());
+        } else if (Files.exists(this.snapshot)) {
+            Economies.info("Account snapshot is outdated, loading accounts from the database");
+        }
+
+        return snapshot;
+    }
+
+    private void writeSnapshot() {
+        Connection connection = null;
+        PreparedStatement statement;
+        ResultSet result;
+
+        try (DatabaseSnapshot.Writer writer = new DatabaseSnapshot.Writer(this.snapshot)) {
+            connection = fetch();
+            connection.setAutoCommit(false);
+
+            // read the high-water mark and the accounts in the same transaction, so that they are consistent
+            final DatabaseSnapshot.Watermark watermark = queryWatermark(connection);
+            int count = 0;
+
+            statement = prepare(connection, "snapshot.accounts");
+            stream(statement);
+            result = statement.executeQuery();
+
+            while (result.next()) {
+                final long balance = getCents(result, "balance");
+
+                writer.add(result.getInt("id"), new UUID(result.getLong("uuid_most"), result.getLong("uuid_least")),
+                        result.getString("identifier"), result.wasNull() ? DatabaseSnapshot.NULL : balance);
+                count++;
+            }
+
+            release(statement);
+
+            connection.commit();
+            close(connection);
+            connection = null;
+
+            writer.finish(MAJOR, MINOR, watermark);
+            Economies.info("Wrote snapshot of %d accounts", count);
+        } catch (IOException | SQLException | ArithmeticException ex) {
+            if (connection != null) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ignored) {
+
+                }
+                close(connection);
+            }
+
+            Economies.warn("Could not write account snapshot: %s", ex.getMessage());
+        }
+    }
+
+    private static @Nullable UUID readUniqueId(@NotNull final ResultSet result, @NotNull final String prefix) throws SQLException {
+        final long most = result.getLong(prefix + "_most");
+
+        // the account of the transaction may be deleted in the meantime
+        return result.wasNull() ? null : new UUID(most, result.getLong(prefix + "_least"));
+    }
+
+    /**
+     * Increments the modification counter of the database, which is part of the high-water mark of the snapshots.<br>
+     * Must be called when the name or unique-id of accounts is modified or accounts are inserted or deleted, within the
+     * transaction of the modification or before it, so that a failing modification at most invalidates a valid snapshot.
+     *
+     * @param connection the connection to increment the counter on.
+     * @throws SQLException if the counter could not be incremented.
+     */
+    void markModified(@NotNull final Connection connection) throws SQLException {
+        final PreparedStatement statement = prepare(connection, "version.modify");
+
+        statement.executeUpdate();
+        release(statement);
+    }
+
+    private void resolveAccounts(@NotNull final Connection connection, @NotNull final List<UUID> uniqueIds,
+                                 @NotNull final Map<UUID, String> names, @NotNull final Map<UUID, AccountStorage> accounts,
+                                 @NotNull final Map<Integer, UUID> initialized,
+                                 @NotNull final Map<Integer, String> renamed) throws SQLException {
+        final PreparedStatement statement = many(connection, "account.provide.resolve");
+        ResultSet result;
+
+        for (int offset = 0; offset < uniqueIds.size(); offset += CHUNK) {
+            final List<UUID> chunk = uniqueIds.subList(offset, Math.min(offset + CHUNK, uniqueIds.size()));
+
+            for (int index = 0; index < CHUNK; index++) {
+                final UUID uniqueId = chunk.get(Math.min(index, chunk.size() - 1));
+
+                statement.setLong(index * 2 + 1, uniqueId.getMostSignificantBits());
+                statement.setLong(index * 2 + 2, uniqueId.getLeastSignificantBits());
+            }
+
+            result = statement.executeQuery();
+
+            while (result.next()) {
+                final UUID uniqueId = new UUID(result.getLong("uuid_most"), result.getLong("uuid_least"));
+                final int id = result.getInt("id");
+
+                if (result.getBoolean("uninitialized")) {
+                    initialized.put(id, uniqueId);
+                }
+
+                if (!names.get(uniqueId).equals(result.getString("identifier"))) {
+                    renamed.put(id, names.get(uniqueId));
+                }
+
+                if (this.index != null) {
+                    this.index.put(uniqueId, id);
+                }
+
+                accounts.put(uniqueId, new DatabaseAccount(this, id, uniqueId));
+            }
+
+            result.close();
+        }
+
+        release(statement);
+    }
+
+    private @NotNull PreparedStatement many(@NotNull final Connection connection, @NotNull final String key) throws SQLException {
+        // every chunk is padded to the same size, so that the statement text is always the same
+        final String sql = String.format(query(key), String.join(", ", Collections.nCopies(CHUNK, "(?, ?)")));
+
+        return this.statements == null ? connection.prepareStatement(sql) :
+                this.statements.prepare(connection, key, physical -> physical.prepareStatement(sql));
+    }
+
+    private void createStripes(@NotNull final Connection connection, final long balance,
+                               final int stripes) throws SQLException {
+        final long share = Math.floorDiv(balance, stripes);
+        final PreparedStatement statement = prepare(connection, "bank.stripe.create");
+
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            // the first stripe additionally receives the remainder of the division
+            statement.setInt(1, stripe);
+            setCents(statement, 2, stripe > 0 ? share : balance - share * (stripes - 1));
+            statement.addBatch();
+        }
+
+        statement.executeBatch();
+        release(statement);
+        Economies.debug("Created %d stripes for global account", stripes);
+    }
 }
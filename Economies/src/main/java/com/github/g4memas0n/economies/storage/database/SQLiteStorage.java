@@ -0,0 +1,110 @@
+package com.github.g4memas0n.economies.storage.database;
+
+import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.storage.StorageException;
+import org.jetbrains.annotations.NotNull;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The embedded SQLite database storage.
+ * <p>
+ *     As SQLite only allows one writer at a time, all writes are serialized through a single writer thread while
+ *     reads run concurrently on the economy executor. The journal mode and page cache are configured through the
+ *     connection url in the drivers file.
+ * </p>
+ * <p>
+ *     Amounts are stored as integer cents, as SQLite would store decimal columns as floating point numbers.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public class SQLiteStorage extends DatabaseStorage {
+
+    private final ExecutorService writer;
+    private volatile Thread thread;
+
+    public SQLiteStorage(@NotNull final Economies plugin) {
+        super(plugin, "resources/queries/sqlite");
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Economies-SQLite-Writer");
+            thread.setDaemon(true);
+            return this.thread = thread;
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        // the ledger still needs the writer to drain its queue
+        super.shutdown();
+
+        this.writer.shutdown();
+
+        try {
+            if (!this.writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                Economies.warn("Timed out while waiting for the database writer to finish");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    protected @NotNull String batch(@NotNull final String name) {
+        return "resources/batches/sqlite/" + name;
+    }
+
+    @Override
+    protected void stream(@NotNull final PreparedStatement statement) {
+        // the driver steps through the rows of a result, so results are always streamed
+    }
+
+    @Override
+    protected void setCents(@NotNull final PreparedStatement statement, final int index,
+                            final long cents) throws SQLException {
+        statement.setLong(index, cents);
+    }
+
+    @Override
+    protected long getCents(@NotNull final ResultSet result, @NotNull final String column) throws SQLException {
+        return result.getLong(column);
+    }
+
+    @Override
+    protected boolean isWriter() {
+        return Thread.currentThread() == this.thread;
+    }
+
+    @Override
+    protected <T> T write(@NotNull final WriteTask<T> task) throws StorageException {
+        if (isWriter()) {
+            return task.run();
+        }
+
+        final Future<T> future = this.writer.submit(task::run);
+
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof StorageException cause) {
+                throw cause;
+            }
+
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw new StorageException("could not write to database", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new StorageException("interrupted while waiting for database writer", ex);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.github.g4memas0n.economies.storage.database;
+
+import org.jetbrains.annotations.NotNull;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache for prepared statements, that keeps the statements of each physical connection by their query key.
+ * <p>
+ *     Statements are prepared on the physical connection behind the pooled connection, so that they survive the
+ *     return of the connection to the pool and can be reused by the following operations. A cached statement is leased
+ *     until it gets released, which only resets it instead of closing it. Statements of connections that were closed
+ *     by the pool are discarded.
+ * </p>
+ * <p>
+ *     MySQL connections prepare their statements on the server, as configured by the connection url in the drivers
+ *     file, so that a reused statement only sends its parameters instead of the whole query.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+class StatementCache {
+
+    private final Map<Connection, Statements> connections;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    StatementCache() {
+        this.connections = new ConcurrentHashMap<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Acquires the statements of the specified {@code connection} after it was fetched from the pool.
+     * <p>
+     *     As a connection is only used by one operation at a time, statements that are still leased were not released
+     *     by a previous operation, which happens if it failed. These statements will be reset and released.
+     * </p>
+     *
+     * @param connection the fetched connection.
+     * @throws SQLException if the physical connection could not be resolved.
+     */
+    public void acquire(@NotNull final Connection connection) throws SQLException {
+        final Connection physical = unwrap(connection);
+        Statements statements = this.connections.get(physical);
+
+        if (statements == null) {
+            // a new physical connection replaces connections that were closed by the pool
+            this.connections.keySet().removeIf(this::isClosed);
+            statements = this.connections.computeIfAbsent(physical, key -> new Statements());
+        }
+
+        statements.reset();
+    }
+
+    /**
+     * Prepares the statement for the specified {@code key} on the specified {@code connection}.
+     *
+     * @param connection the connection to prepare the statement on.
+     * @param key the key of the statement in the queries file.
+     * @param preparer the preparer that prepares a new statement on a connection.
+     * @return the cached statement, or a new uncached statement if the cached statement is already leased.
+     * @throws SQLException if the statement could not be prepared.
+     */
+    public @NotNull PreparedStatement prepare(@NotNull final Connection connection, @NotNull final String key,
+                                              @NotNull final Preparer preparer) throws SQLException {
+        final Connection physical = unwrap(connection);
+        final Statements statements = this.connections.get(physical);
+
+        if (statements == null) {
+            // the connection was not fetched through the storage, so its statements can not be tracked
+            this.misses.increment();
+            return preparer.prepare(connection);
+        }
+
+        synchronized (statements) {
+            PreparedStatement statement = statements.cached.get(key);
+
+            if (statement != null && statements.leased.contains(statement)) {
+                // the statement is used by the running operation, for example while iterating its results
+                this.misses.increment();
+                return preparer.prepare(connection);
+            }
+
+            if (statement != null && !statement.isClosed()) {
+                this.hits.increment();
+            } else {
+                this.misses.increment();
+                statement = preparer.prepare(physical);
+                statements.cached.put(key, statement);
+            }
+
+            statements.leased.add(statement);
+            return statement;
+        }
+    }
+
+    /**
+     * Releases the specified {@code statement}, if it is a cached statement.
+     *
+     * @param statement the statement to release.
+     * @return true if the statement is cached and got released, false if it needs to be closed.
+     */
+    public boolean release(@NotNull final Statement statement) {
+        final Statements statements;
+
+        try {
+            statements = this.connections.get(statement.getConnection());
+        } catch (SQLException ex) {
+            return false;
+        }
+
+        if (statements == null) {
+            return false;
+        }
+
+        synchronized (statements) {
+            if (!statements.leased.remove(statement)) {
+                return false;
+            }
+
+            statements.reset(statement);
+            return true;
+        }
+    }
+
+    /**
+     * Closes all cached statements.
+     */
+    public void clear() {
+        for (final Statements statements : this.connections.values()) {
+            synchronized (statements) {
+                for (final PreparedStatement statement : statements.cached.values()) {
+                    DatabaseStorage.close(statement);
+                }
+
+                statements.cached.clear();
+                statements.leased.clear();
+            }
+        }
+
+        this.connections.clear();
+    }
+
+    /*
+     * Cache metrics:
+     */
+
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private boolean isClosed(@NotNull final Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException ex) {
+            return true;
+        }
+    }
+
+    private static @NotNull Connection unwrap(@NotNull final Connection connection) throws SQLException {
+        // pooled connections are proxies, but the cached statements belong to the physical connection behind them
+        return connection.isWrapperFor(Connection.class) ? connection.unwrap(Connection.class) : connection;
+    }
+
+    @FunctionalInterface
+    interface Preparer {
+
+        @NotNull PreparedStatement prepare(@NotNull Connection connection) throws SQLException;
+    }
+
+    private static final class Statements {
+
+        private final Map<String, PreparedStatement> cached = new HashMap<>();
+        private final Set<Statement> leased = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private synchronized void reset() {
+            final Iterator<Statement> iterator = this.leased.iterator();
+
+            while (iterator.hasNext()) {
+                reset(iterator.next());
+                iterator.remove();
+            }
+        }
+
+        private void reset(@NotNull final Statement statement) {
+            try {
+                final ResultSet result = statement.getResultSet();
+
+                if (result != null) {
+                    result.close();
+                }
+
+                statement.clearBatch();
+
+                if (statement instanceof PreparedStatement prepared) {
+                    prepared.clearParameters();
+                }
+            } catch (SQLException ex) {
+                // the statement can not be reused, so it will be prepared again on its next use
+                this.cached.values().remove(statement);
+                DatabaseStorage.close(statement);
+            }
+        }
+    }
+}
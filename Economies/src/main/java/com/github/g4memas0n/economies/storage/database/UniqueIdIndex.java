@@ -0,0 +1,328 @@
+package com.github.g4memas0n.economies.storage.database;
+
+import org.jetbrains.annotations.NotNull;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A resident index that maps the unique-ids of all accounts to their ids in the database.
+ * <p>
+ *     The index is an open-addressing hash table with linear probing, that stores the two halves of the unique-id and
+ *     the id of each account as primitives in its slots, instead of keeping objects for every account. The slots can be
+ *     stored in arrays on the heap or in a direct buffer outside of the heap. Lookups are optimistic and do not block,
+ *     while updates are serialized.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+class UniqueIdIndex {
+
+    private static final int CAPACITY = 1024;
+    private static final int SLOT = 20;
+
+    private final StampedLock lock;
+    private final boolean direct;
+
+    private Table table;
+    private int size;
+
+    UniqueIdIndex(final boolean direct) {
+        this.lock = new StampedLock();
+        this.direct = direct;
+        this.table = create(CAPACITY);
+    }
+
+    /**
+     * Gets the id of the account with the specified {@code uniqueId}.
+     *
+     * @param uniqueId the unique-id of the account.
+     * @return the id of the account, or zero if the index does not contain the unique-id.
+     */
+    public int get(@NotNull final UUID uniqueId) {
+        final long most = uniqueId.getMostSignificantBits();
+        final long least = uniqueId.getLeastSignificantBits();
+        long stamp = this.lock.tryOptimisticRead();
+        int id = find(this.table, most, least);
+
+        if (!this.lock.validate(stamp)) {
+            // the table changed while probing, so probe again while holding the lock
+            stamp = this.lock.readLock();
+
+            try {
+                id = find(this.table, most, least);
+            } finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        return id;
+    }
+
+    public boolean contains(@NotNull final UUID uniqueId) {
+        return get(uniqueId) > 0;
+    }
+
+    public void put(@NotNull final UUID uniqueId, final int id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("id must be greater than zero");
+        }
+
+        final long most = uniqueId.getMostSignificantBits();
+        final long least = uniqueId.getLeastSignificantBits();
+        final long stamp = this.lock.writeLock();
+
+        try {
+            // grow the table at a load factor of 3/4, as the probe sequences get long when the table fills up
+            if ((this.size + 1) * 4L > this.table.capacity() * 3L) {
+                resize(this.table.capacity() * 2);
+            }
+
+            if (insert(this.table, most, least, id)) {
+                this.size++;
+            }
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(@NotNull final UUID uniqueId) {
+        final long most = uniqueId.getMostSignificantBits();
+        final long least = uniqueId.getLeastSignificantBits();
+        final long stamp = this.lock.writeLock();
+
+        try {
+            final Table table = this.table;
+            final int mask = table.capacity() - 1;
+            int slot = hash(most, least) & mask;
+
+            while (table.id(slot) != 0) {
+                if (table.most(slot) == most && table.least(slot) == least) {
+                    delete(table, slot);
+                    this.size--;
+                    return;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+        } finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        final long stamp = this.lock.readLock();
+
+        try {
+            return this.size;
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /*
+     * Index metrics:
+     */
+
+    /**
+     * Returns whether the slots of this index are stored outside of the heap.
+     * @return true if the slots are stored in a direct buffer.
+     */
+    public boolean isDirect() {
+        return this.direct;
+    }
+
+    /**
+     * Returns the number of bytes that are used by the slots of this index.
+     * @return the memory usage in bytes.
+     */
+    public long getMemoryUsage() {
+        final long stamp = this.lock.readLock();
+
+        try {
+            return (long) this.table.capacity() * SLOT;
+        } finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private @NotNull Table create(final int capacity) {
+        return this.direct ? new DirectTable(capacity) : new HeapTable(capacity);
+    }
+
+    private void resize(final int capacity) {
+        final Table previous = this.table;
+        final Table table = create(capacity);
+
+        for (int slot = 0; slot < previous.capacity(); slot++) {
+            if (previous.id(slot) != 0) {
+                insert(table, previous.most(slot), previous.least(slot), previous.id(slot));
+            }
+        }
+
+        this.table = table;
+    }
+
+    private static int find(@NotNull final Table table, final long most, final long least) {
+        final int mask = table.capacity() - 1;
+        int slot = hash(most, least) & mask;
+        int id;
+
+        // the table is never full, so every probe sequence ends at an empty slot
+        for (int probes = 0; probes <= mask && (id = table.id(slot)) != 0; probes++) {
+            if (table.most(slot) == most && table.least(slot) == least) {
+                return id;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    private static boolean insert(@NotNull final Table table, final long most, final long least, final int id) {
+        final int mask = table.capacity() - 1;
+        int slot = hash(most, least) & mask;
+
+        while (table.id(slot) != 0) {
+            if (table.most(slot) == most && table.least(slot) == least) {
+                table.set(slot, most, least, id);
+                return false;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        table.set(slot, most, least, id);
+        return true;
+    }
+
+    private static void delete(@NotNull final Table table, final int slot) {
+        final int mask = table.capacity() - 1;
+        int empty = slot;
+        int next = slot;
+
+        // shift the following entries of the probe sequence back, instead of leaving a tombstone
+        while (true) {
+            next = (next + 1) & mask;
+
+            if (table.id(next) == 0) {
+                break;
+            }
+
+            final int home = hash(table.most(next), table.least(next)) & mask;
+
+            // the entry can only be moved, if the empty slot lies between its home slot and its current slot
+            if (((next - home) & mask) >= ((next - empty) & mask)) {
+                table.set(empty, table.most(next), table.least(next), table.id(next));
+                empty = next;
+            }
+        }
+
+        table.set(empty, 0, 0, 0);
+    }
+
+    private static int hash(final long most, final long least) {
+        long hash = most ^ Long.rotateLeft(least, 32);
+
+        // the finalizer of murmur3, as the version and variant bits of the unique-ids are not random
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (hash ^ (hash >>> 33));
+    }
+
+    private interface Table {
+
+        int capacity();
+
+        long most(int slot);
+
+        long least(int slot);
+
+        int id(int slot);
+
+        void set(int slot, long most, long least, int id);
+    }
+
+    private static final class HeapTable implements Table {
+
+        private final long[] uniqueIds;
+        private final int[] ids;
+
+        private HeapTable(final int capacity) {
+            this.uniqueIds = new long[capacity * 2];
+            this.ids = new int[capacity];
+        }
+
+        @Override
+        public int capacity() {
+            return this.ids.length;
+        }
+
+        @Override
+        public long most(final int slot) {
+            return this.uniqueIds[slot * 2];
+        }
+
+        @Override
+        public long least(final int slot) {
+            return this.uniqueIds[slot * 2 + 1];
+        }
+
+        @Override
+        public int id(final int slot) {
+            return this.ids[slot];
+        }
+
+        @Override
+        public void set(final int slot, final long most, final long least, final int id) {
+            this.uniqueIds[slot * 2] = most;
+            this.uniqueIds[slot * 2 + 1] = least;
+            this.ids[slot] = id;
+        }
+    }
+
+    private static final class DirectTable implements Table {
+
+        private final ByteBuffer buffer;
+        private final int capacity;
+
+        private DirectTable(final int capacity) {
+            this.buffer = ByteBuffer.allocateDirect(capacity * SLOT).order(ByteOrder.nativeOrder());
+            this.capacity = capacity;
+        }
+
+        @Override
+        public int capacity() {
+            return this.capacity;
+        }
+
+        @Override
+        public long most(final int slot) {
+            return this.buffer.getLong(slot * SLOT);
+        }
+
+        @Override
+        public long least(final int slot) {
+            return this.buffer.getLong(slot * SLOT + 8);
+        }
+
+        @Override
+        public int id(final int slot) {
+            return this.buffer.getInt(slot * SLOT + 16);
+        }
+
+        @Override
+        public void set(final int slot, final long most, final long least, final int id) {
+            this.buffer.putLong(slot * SLOT, most);
+            this.buffer.putLong(slot * SLOT + 8, least);
+            this.buffer.putInt(slot * SLOT + 16, id);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.g4memas0n.economies.storage.metrics;
+
+import com.github.g4memas0n.economies.metrics.MetricsRegistry;
+import com.github.g4memas0n.economies.storage.AccountStorage;
+import com.github.g4memas0n.economies.storage.StorageException;
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A decorator for another {@link AccountStorage}, that records the latency of every account operation.
+ * <p>
+ *     Each operation is recorded in the timer of its method name, prefixed by {@code account.}. Accounts are only
+ *     wrapped by the {@link MeteredStorage}, so that they are only decorated if metrics are enabled.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public class MeteredAccount implements AccountStorage {
+
+    private final MetricsRegistry metrics;
+    final AccountStorage storage;
+
+    MeteredAccount(@NotNull final MetricsRegistry metrics, @NotNull final AccountStorage storage) {
+        this.metrics = metrics;
+        this.storage = storage;
+    }
+
+    @Override
+    public @NotNull UUID getUniqueId() throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return this.storage.getUniqueId();
+        } finally {
+            this.metrics.stop("account.getUniqueId", start);
+        }
+    }
+
+    @Override
+    public void setUniqueId(@NotNull final UUID uniqueId) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            this.storage.setUniqueId(uniqueId);
+        } finally {
+            this.metrics.stop("account.setUniqueId", start);
+        }
+    }
+
+    @Override
+    public @NotNull String getName() throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return this.storage.getName();
+        } finally {
+            this.metrics.stop("account.getName", start);
+        }
+    }
+
+    @Override
+    public void setName(@NotNull final String name) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            this.storage.setName(name);
+        } finally {
+            this.metrics.stop("account.setName", start);
+        }
+    }
+
+    @Override
+    public @NotNull BigDecimal getBalance() throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return this.storage.getBalance();
+        } finally {
+            this.metrics.stop("account.getBalance", start);
+        }
+    }
+
+    @Override
+    public void setBalance(@NotNull final BigDecimal balance) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            this.storage.setBalance(balance);
+        } finally {
+            this.metrics.stop("account.setBalance", start);
+        }
+    }
+
+    @Override
+    public void depositBalance(@NotNull final BigDecimal amount, final boolean negative) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            this.storage.depositBalance(amount, negative);
+        } finally {
+            this.metrics.stop("account.depositBalance", start);
+        }
+    }
+
+    @Override
+    public void withdrawBalance(@NotNull final BigDecimal amount, final boolean negative) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            this.storage.withdrawBalance(amount, negative);
+        } finally {
+            this.metrics.stop("account.withdrawBalance", start);
+        }
+    }
+
+    @Override
+    public void depositBalances(@NotNull final List<BigDecimal> amounts, final boolean negative) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            this.storage.depositBalances(amounts, negative);
+        } finally {
+            this.metrics.stop("account.depositBalances", start);
+        }
+    }
+
+    @Override
+    public void withdrawBalances(@NotNull final List<BigDecimal> amounts, final boolean negative) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            this.storage.withdrawBalances(amounts, negative);
+        } finally {
+            this.metrics.stop("account.withdrawBalances", start);
+        }
+    }
+
+    @Override
+    public void transferBalance(@NotNull final AccountStorage account, @NotNull final BigDecimal amount, final boolean negative) throws StorageException {
+        Preconditions.checkArgument(account instanceof MeteredAccount, "unknown storage implementation");
+        final long start = this.metrics.start();
+
+        try {
+            // the wrapped storage only accepts accounts of its own implementation
+            this.storage.transferBalance(((MeteredAccount) account).storage, amount, negative);
+        } finally {
+            this.metrics.stop("account.transferBalance", start);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.github.g4memas0n.economies.storage.metrics;
+
+import com.github.g4memas0n.economies.economy.Leaderboard;
+import com.github.g4memas0n.economies.economy.Transaction;
+import com.github.g4memas0n.economies.metrics.MetricsRegistry;
+import com.github.g4memas0n.economies.storage.AccountStorage;
+import com.github.g4memas0n.economies.storage.StorageException;
+import com.github.g4memas0n.economies.storage.StorageManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * A decorator for another {@link StorageManager}, that records the latency of every storage and account operation.
+ * <p>
+ *     Each operation is recorded in the timer of its method name, prefixed by {@code storage.} for the methods of the
+ *     storage and by {@code account.} for the methods of its accounts. The decorator is only used if metrics are
+ *     enabled, so that disabled metrics do not add any indirection.
+ * </p>
+ *
+ * @author G4meMas0n
+ * @since Release 1.0.0
+ */
+public class MeteredStorage implements StorageManager {
+
+    private final MetricsRegistry metrics;
+    private final StorageManager storage;
+
+    private volatile MeteredAccount global;
+
+    public MeteredStorage(@NotNull final StorageManager storage, @NotNull final MetricsRegistry metrics) {
+        this.metrics = metrics;
+        this.storage = storage;
+    }
+
+    @Override
+    public @NotNull AccountStorage getGlobal() throws StorageException {
+        MeteredAccount global = this.global;
+
+        if (global == null) {
+            final long start = this.metrics.start();
+
+            try {
+                global = new MeteredAccount(this.metrics, this.storage.getGlobal());
+                this.global = global;
+            } finally {
+                this.metrics.stop("storage.getGlobal", start);
+            }
+        }
+
+        return global;
+    }
+
+    @Override
+    public @Nullable AccountStorage getAccount(@NotNull final String name) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return wrap(this.storage.getAccount(name));
+        } finally {
+            this.metrics.stop("storage.getAccount", start);
+        }
+    }
+
+    @Override
+    public @Nullable AccountStorage getAccount(@NotNull final UUID uniqueId) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return wrap(this.storage.getAccount(uniqueId));
+        } finally {
+            this.metrics.stop("storage.getAccount", start);
+        }
+    }
+
+    @Override
+    public @NotNull Map<UUID, AccountStorage> getAccounts(@NotNull final Collection<UUID> uniqueIds) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return wrap(this.storage.getAccounts(uniqueIds));
+        } finally {
+            this.metrics.stop("storage.getAccounts", start);
+        }
+    }
+
+    @Override
+    public void forEachAccount(@NotNull final BiConsumer<UUID, String> consumer) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            this.storage.forEachAccount(consumer);
+        } finally {
+            this.metrics.stop("storage.forEachAccount", start);
+        }
+    }
+
+    @Override
+    public void forEachBalance(@NotNull final BiConsumer<UUID, BigDecimal> consumer) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            this.storage.forEachBalance(consumer);
+        } finally {
+            this.metrics.stop("storage.forEachBalance", start);
+        }
+    }
+
+    @Override
+    public boolean hasAccount(@NotNull final String name) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return this.storage.hasAccount(name);
+        } finally {
+            this.metrics.stop("storage.hasAccount", start);
+        }
+    }
+
+    @Override
+    public boolean hasAccount(@NotNull final UUID uniqueId) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return this.storage.hasAccount(uniqueId);
+        } finally {
+            this.metrics.stop("storage.hasAccount", start);
+        }
+    }
+
+    @Override
+    public boolean createAccount(@NotNull final UUID uniqueId, @NotNull final String name) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return this.storage.createAccount(uniqueId, name);
+        } finally {
+            this.metrics.stop("storage.createAccount", start);
+        }
+    }
+
+    @Override
+    public @NotNull Map<UUID, AccountStorage> provideAccounts(@NotNull final Map<UUID, String> names) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return wrap(this.storage.provideAccounts(names));
+        } finally {
+            this.metrics.stop("storage.provideAccounts", start);
+        }
+    }
+
+    @Override
+    public boolean deleteAccount(@NotNull final UUID uniqueId) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return this.storage.deleteAccount(uniqueId);
+        } finally {
+            this.metrics.stop("storage.deleteAccount", start);
+        }
+    }
+
+    @Override
+    public @NotNull Map<UUID, Boolean> depositBalances(@NotNull final Map<UUID, BigDecimal> amounts,
+                                                       final boolean negative) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return this.storage.depositBalances(amounts, negative);
+        } finally {
+            this.metrics.stop("storage.depositBalances", start);
+        }
+    }
+
+    @Override
+    public @NotNull List<Transaction> getTransactions(@NotNull final UUID uniqueId, @Nullable final Transaction after,
+                                                      final int limit) throws StorageException {
+        final long start = this.metrics.start();
+
+        try {
+            return this.storage.getTransactions(uniqueId, after, limit);
+        } finally {
+            this.metrics.stop("storage.getTransactions", start);
+        }
+    }
+
+    @Override
+    public void setLeaderboard(@Nullable final Leaderboard leaderboard) {
+        this.storage.setLeaderboard(leaderboard);
+    }
+
+    @Override
+    public void shutdown() {
+        final long start = this.metrics.start();
+
+        try {
+            this.storage.shutdown();
+        } finally {
+            this.metrics.stop("storage.shutdown", start);
+        }
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private @Nullable AccountStorage wrap(@Nullable final AccountStorage storage) {
+        return storage != null ? new MeteredAccount(this.metrics, storage) : null;
+    }
+
+    private @NotNull Map<UUID, AccountStorage> wrap(@NotNull final Map<UUID, AccountStorage> storages) {
+        final Map<UUID, AccountStorage> accounts = new HashMap<>();
+
+        for (final Map.Entry<UUID, AccountStorage> entry : storages.entrySet()) {
+            accounts.put(entry.getKey(), new MeteredAccount(this.metrics, entry.getValue()));
+        }
+
+        return accounts;
+    }
+}
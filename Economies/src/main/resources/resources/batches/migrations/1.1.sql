@@ -0,0 +1,9 @@
+#
+#
+#
+
+ALTER TABLE transactions
+    ADD COLUMN id BIGINT UNSIGNED AUTO_INCREMENT FIRST,
+    ADD PRIMARY KEY (id),
+    ADD INDEX sender_history (sender, timestamp, id),
+    ADD INDEX receiver_history (receiver, timestamp, id);
@@ -0,0 +1,6 @@
+#
+#
+#
+
+ALTER TABLE accounts
+    ADD INDEX identifier (identifier);
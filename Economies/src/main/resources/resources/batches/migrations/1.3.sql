@@ -0,0 +1,6 @@
+#
+# The version is incremented by every balance update, so that optimistic updates can detect concurrent changes.
+#
+
+ALTER TABLE accounts
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
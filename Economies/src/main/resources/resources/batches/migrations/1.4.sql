@@ -0,0 +1,5 @@
+#
+# Only SQLite changed the way amounts are stored in this version, as MySQL already stores decimals exactly.
+#
+
+UPDATE versions SET version_minor = version_minor WHERE plugin_name = 'Economies';
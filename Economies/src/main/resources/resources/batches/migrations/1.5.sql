@@ -0,0 +1,6 @@
+#
+# The modifications are counted, so that snapshots also detect renamed accounts and changed unique-ids.
+#
+
+ALTER TABLE versions
+    ADD COLUMN modifications BIGINT UNSIGNED NOT NULL DEFAULT 0;
@@ -0,0 +1,15 @@
+#
+# Transactions are queued within the transaction of their balance changes, so that the ledger can write them in batches.
+#
+
+CREATE TABLE IF NOT EXISTS transactions_pending (
+    id BIGINT UNSIGNED AUTO_INCREMENT,
+    sender MEDIUMINT UNSIGNED,
+    receiver MEDIUMINT UNSIGNED,
+    timestamp TIMESTAMP NOT NULL,
+    amount DECIMAL(20,2) NOT NULL CHECK (amount > 0),
+
+    PRIMARY KEY (id),
+    FOREIGN KEY (sender) REFERENCES accounts(id),
+    FOREIGN KEY (receiver) REFERENCES accounts(id)
+);
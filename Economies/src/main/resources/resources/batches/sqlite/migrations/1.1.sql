@@ -0,0 +1,7 @@
+#
+# The implicit rowid of the transactions table serves as transaction id and is part of every index.
+#
+
+CREATE INDEX IF NOT EXISTS sender_history ON transactions (sender, timestamp);
+
+CREATE INDEX IF NOT EXISTS receiver_history ON transactions (receiver, timestamp);
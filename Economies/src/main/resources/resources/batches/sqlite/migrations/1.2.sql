@@ -0,0 +1,5 @@
+#
+# The index uses the NOCASE collation, as account names are resolved case-insensitive.
+#
+
+CREATE INDEX IF NOT EXISTS identifier ON accounts (identifier COLLATE NOCASE);
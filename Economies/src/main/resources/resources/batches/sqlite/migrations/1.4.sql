@@ -0,0 +1,9 @@
+#
+# Amounts are stored as integer cents from now on, as SQLite stored the decimal columns as floating point numbers.
+#
+
+UPDATE accounts SET balance = CAST(ROUND(balance * 100) AS INTEGER) WHERE balance IS NOT NULL;
+
+UPDATE stripes SET balance = CAST(ROUND(balance * 100) AS INTEGER);
+
+UPDATE transactions SET amount = CAST(ROUND(amount * 100) AS INTEGER);
@@ -0,0 +1,5 @@
+#
+# The modifications are counted, so that snapshots also detect renamed accounts and changed unique-ids.
+#
+
+ALTER TABLE versions ADD COLUMN modifications BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,14 @@
+#
+# Transactions are queued within the transaction of their balance changes, so that the ledger can write them in batches.
+#
+
+CREATE TABLE IF NOT EXISTS transactions_pending (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    sender INTEGER,
+    receiver INTEGER,
+    timestamp TIMESTAMP NOT NULL,
+    amount INTEGER NOT NULL CHECK (amount > 0),
+
+    FOREIGN KEY (sender) REFERENCES accounts(id),
+    FOREIGN KEY (receiver) REFERENCES accounts(id)
+);
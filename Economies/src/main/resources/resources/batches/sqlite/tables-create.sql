@@ -0,0 +1,38 @@
+#
+# Amounts are stored as integer cents, as SQLite would store decimal columns as floating point numbers.
+#
+
+CREATE TABLE IF NOT EXISTS accounts (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    uuid_most BIGINT NOT NULL,
+    uuid_least BIGINT NOT NULL,
+    identifier VARCHAR(16) NOT NULL,
+    balance INTEGER,
+
+    CONSTRAINT uuid UNIQUE (uuid_most, uuid_least)
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    sender INTEGER,
+    receiver INTEGER,
+    timestamp TIMESTAMP NOT NULL,
+    amount INTEGER NOT NULL CHECK (amount > 0),
+
+    FOREIGN KEY (sender) REFERENCES accounts(id),
+    FOREIGN KEY (receiver) REFERENCES accounts(id)
+);
+
+CREATE TABLE IF NOT EXISTS stripes (
+    stripe SMALLINT NOT NULL,
+    balance INTEGER NOT NULL,
+
+    PRIMARY KEY (stripe)
+);
+
+CREATE TABLE IF NOT EXISTS versions (
+    plugin_name VARCHAR(16) NOT NULL,
+    version_major TINYINT NOT NULL,
+    version_minor TINYINT NOT NULL,
+
+    PRIMARY KEY (plugin_name)
+);
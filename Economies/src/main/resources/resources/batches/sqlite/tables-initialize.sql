@@ -0,0 +1,9 @@
+#
+#
+#
+
+INSERT INTO accounts (id, uuid_most, uuid_least, identifier)
+VALUES (1, 0, 0, 'Bank') ON CONFLICT DO NOTHING;
+
+INSERT INTO versions (plugin_name, version_major, version_minor)
+VALUES ('Economies', 1, 0) ON CONFLICT DO NOTHING;
@@ -23,6 +23,13 @@ CREATE TABLE IF NOT EXISTS transactions (
     FOREIGN KEY (receiver) REFERENCES accounts(id)
 );
 
+CREATE TABLE IF NOT EXISTS stripes (
+    stripe SMALLINT UNSIGNED NOT NULL,
+    balance DECIMAL(20,2) NOT NULL,
+
+    PRIMARY KEY (stripe)
+);
+
 CREATE TABLE IF NOT EXISTS versions (
     plugin_name VARCHAR(16) NOT NULL,
     version_major TINYINT UNSIGNED NOT NULL,
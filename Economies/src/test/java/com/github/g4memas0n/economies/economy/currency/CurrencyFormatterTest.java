@@ -0,0 +1,113 @@
+package com.github.g4memas0n.economies.economy.currency;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+public class CurrencyFormatterTest {
+
+    private static final Locale[] LOCALES = {Locale.US, Locale.GERMANY, Locale.FRANCE, Locale.forLanguageTag("de-CH"),
+            Locale.forLanguageTag("pt-BR"), Locale.forLanguageTag("en-IN"), Locale.JAPAN, Locale.forLanguageTag("ar-EG")};
+
+    private static final long[] CENTS = {0, 1, 9, 10, 50, 99, 100, 101, 110, 999, 1000, 1050, 99999, 100000, 123456,
+            1234567, 100000000, 123456789012L, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+
+    @Test
+    public void testGrouping() {
+        for (final Locale locale : LOCALES) {
+            assertFormats("#,##0.00", locale, "$", false);
+            assertFormats("#,##0.##", locale, "$", false);
+            assertFormats("#,####0.00", locale, "$", false);
+        }
+    }
+
+    @Test
+    public void testWithoutGrouping() {
+        for (final Locale locale : LOCALES) {
+            assertFormats("0.00", locale, "$", false);
+            assertFormats("0.##", locale, "$", false);
+            assertFormats("000.0#", locale, "$", false);
+        }
+    }
+
+    @Test
+    public void testNegativePattern() {
+        for (final Locale locale : LOCALES) {
+            assertFormats("#,##0.00;(#,##0.00)", locale, "$", false);
+            assertFormats("#,##0.00;#,##0.00-", locale, "$", false);
+        }
+    }
+
+    @Test
+    public void testSuffixSymbol() {
+        for (final Locale locale : LOCALES) {
+            assertFormats("#,##0.00", locale, " \u20AC", true);
+            assertFormats("#,##0.##", locale, "\u00A0CHF", true);
+            assertFormats("#,##0.00;(#,##0.00)", locale, " \u20AC", true);
+        }
+    }
+
+    @Test
+    public void testDecimals() {
+        final DecimalFormat format = create("#,##0.00", Locale.GERMANY);
+        final CurrencyFormatter formatter = new CurrencyFormatter(format, " \u20AC", true);
+
+        // decimals with more than two fraction digits are rounded down to cents, like the decimal format does
+        for (final String decimal : new String[]{"0.001", "12.349", "-12.341", "1234.5", "-0.5", "99999999.999"}) {
+            assertEquals(decimal, expected(format, " \u20AC", true, new BigDecimal(decimal)),
+                    formatter.format(new BigDecimal(decimal)));
+        }
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private static void assertFormats(@NotNull final String pattern, @NotNull final Locale locale,
+                                      @NotNull final String symbol, final boolean suffix) {
+        final DecimalFormat format = create(pattern, locale);
+        final CurrencyFormatter formatter = new CurrencyFormatter(format, symbol, suffix);
+
+        for (final long sample : CENTS) {
+            for (final long cents : new long[]{sample, -sample}) {
+                final BigDecimal decimal = BigDecimal.valueOf(cents, 2);
+                final String message = pattern + " in " + locale.toLanguageTag() + " for " + decimal.toPlainString();
+
+                assertEquals(message, expected(format, symbol, suffix, decimal), formatter.format(cents));
+                assertEquals(message, expected(format, symbol, suffix, decimal), formatter.format(decimal));
+            }
+        }
+    }
+
+    private static @NotNull DecimalFormat create(@NotNull final String pattern, @NotNull final Locale locale) {
+        // configured like the currency format of the settings and the basic currency
+        final DecimalFormat format = new DecimalFormat(pattern);
+
+        format.setDecimalFormatSymbols(DecimalFormatSymbols.getInstance(locale));
+        format.setRoundingMode(RoundingMode.FLOOR);
+        format.setMaximumFractionDigits(2);
+        return format;
+    }
+
+    private static @NotNull String expected(@NotNull final DecimalFormat format, @NotNull final String symbol,
+                                            final boolean suffix, @NotNull final BigDecimal decimal) {
+        String string = format.format(decimal);
+
+        // whole amounts are written without the trailing decimal separator and zeros, if the pattern requires them
+        if (format.toPattern().contains(".00")) {
+            final char separator = format.getDecimalFormatSymbols().getDecimalSeparator();
+
+            if (string.endsWith(separator + "00")) {
+                string = string.substring(0, string.length() - 3);
+            }
+        }
+
+        return suffix ? string + symbol : symbol + string;
+    }
+}
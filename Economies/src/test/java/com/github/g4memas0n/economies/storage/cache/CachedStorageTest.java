@@ -0,0 +1,327 @@
+package com.github.g4memas0n.economies.storage.cache;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import com.github.g4memas0n.economies.Economies;
+import com.github.g4memas0n.economies.economy.Leaderboard;
+import com.github.g4memas0n.economies.economy.Transaction;
+import com.github.g4memas0n.economies.storage.AccountStorage;
+import com.github.g4memas0n.economies.storage.StorageException;
+import com.github.g4memas0n.economies.storage.StorageManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class CachedStorageTest {
+
+    private MemoryStorage database;
+    private CachedStorage cache;
+
+    @Before
+    public void setup() {
+        // the plugin only provides the logger for the cache, its storage is not used
+        MockBukkit.mock();
+        MockBukkit.load(Economies.class);
+
+        this.database = new MemoryStorage(100000);
+        this.cache = new CachedStorage(this.database);
+    }
+
+    @After
+    public void teardown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    public void testDroppedDeposit() throws StorageException {
+        final AccountStorage account = get(this.database.create(1000));
+
+        account.depositBalance(new BigDecimal("10.00"), false);
+        assertEquals(new BigDecimal("1010.00"), account.getBalance());
+
+        this.database.failing = true;
+        flushUntilDropped(1);
+
+        assertBalances(account);
+    }
+
+    @Test
+    public void testDroppedTransfer() throws StorageException {
+        final AccountStorage sender = get(this.database.create(1000));
+        final AccountStorage receiver = get(this.database.create(500));
+
+        sender.transferBalance(receiver, new BigDecimal("250.00"), false);
+
+        this.database.failing = true;
+        flushUntilDropped(1);
+
+        assertBalances(sender);
+        assertBalances(receiver);
+    }
+
+    @Test
+    public void testDroppedChangeWithFollowingChanges() throws StorageException {
+        final AccountStorage account = get(this.database.create(1000));
+        final AccountStorage other = get(this.database.create(1000));
+
+        account.withdrawBalance(new BigDecimal("100.00"), false);
+
+        // only the first change keeps failing, the following changes of the same accounts will be written
+        this.database.failing = true;
+        this.cache.flush();
+        this.database.failing = false;
+        this.database.rejected = 100_00L;
+
+        account.depositBalance(new BigDecimal("30.00"), false);
+        other.withdrawBalance(new BigDecimal("20.00"), false);
+        flushUntilDropped(1);
+
+        assertEquals(0, this.cache.getPendingCount());
+        assertBalances(account);
+        assertBalances(other);
+    }
+
+    @Test
+    public void testWrittenChanges() throws StorageException {
+        final AccountStorage account = get(this.database.create(1000));
+
+        account.depositBalance(new BigDecimal("10.00"), false);
+        account.withdrawBalance(new BigDecimal("5.00"), false);
+        this.cache.flush();
+
+        assertEquals(0, this.cache.getDroppedCount());
+        assertEquals(new BigDecimal("1005.00"), account.getBalance());
+        assertBalances(account);
+    }
+
+    /*
+     * helper methods:
+     */
+
+    private @NotNull AccountStorage get(@NotNull final UUID uniqueId) throws StorageException {
+        final AccountStorage account = this.cache.getAccount(uniqueId);
+
+        assertNotNull(account);
+        return account;
+    }
+
+    private void flushUntilDropped(final long dropped) {
+        for (int attempt = 0; attempt < 100 && this.cache.getDroppedCount() < dropped; attempt++) {
+            this.cache.flush();
+        }
+
+        assertEquals(dropped, this.cache.getDroppedCount());
+    }
+
+    private void assertBalances(@NotNull final AccountStorage account) throws StorageException {
+        final UUID uniqueId = account.getUniqueId();
+
+        // the cached balances must match the balances in the storage, as no changes are pending anymore
+        assertEquals(uniqueId.toString(), BigDecimal.valueOf(this.database.balances.get(uniqueId), 2), account.getBalance());
+        assertEquals("global", BigDecimal.valueOf(this.database.global, 2), this.cache.getGlobal().getBalance());
+    }
+
+    /**
+     * A storage that keeps the balances in memory, of which writes can be made to fail.
+     */
+    private static final class MemoryStorage implements StorageManager {
+
+        private final Map<UUID, Long> balances = new HashMap<>();
+        private long global;
+
+        // fails all balance changes while set, or only changes with the rejected amount otherwise
+        private volatile boolean failing;
+        private volatile long rejected;
+
+        private MemoryStorage(final long global) {
+            this.global = global * 100;
+        }
+
+        private @NotNull UUID create(final long balance) {
+            final UUID uniqueId = UUID.randomUUID();
+
+            this.balances.put(uniqueId, balance * 100);
+            return uniqueId;
+        }
+
+        private void check(final long cents) throws StorageException {
+            if (this.failing || cents == this.rejected) {
+                throw new StorageException("storage unavailable");
+            }
+        }
+
+        @Override
+        public @NotNull AccountStorage getGlobal() {
+            return new MemoryAccount(this, null);
+        }
+
+        @Override
+        public @Nullable AccountStorage getAccount(@NotNull final String name) {
+            return null;
+        }
+
+        @Override
+        public @Nullable AccountStorage getAccount(@NotNull final UUID uniqueId) {
+            return this.balances.containsKey(uniqueId) ? new MemoryAccount(this, uniqueId) : null;
+        }
+
+        @Override
+        public @NotNull Map<UUID, AccountStorage> getAccounts(@NotNull final Collection<UUID> uniqueIds) {
+            final Map<UUID, AccountStorage> accounts = new HashMap<>();
+
+            for (final UUID uniqueId : uniqueIds) {
+                if (this.balances.containsKey(uniqueId)) {
+                    accounts.put(uniqueId, new MemoryAccount(this, uniqueId));
+                }
+            }
+
+            return accounts;
+        }
+
+        @Override
+        public void forEachAccount(@NotNull final BiConsumer<UUID, String> consumer) { }
+
+        @Override
+        public void forEachBalance(@NotNull final BiConsumer<UUID, BigDecimal> consumer) { }
+
+        @Override
+        public boolean hasAccount(@NotNull final String name) {
+            return false;
+        }
+
+        @Override
+        public boolean hasAccount(@NotNull final UUID uniqueId) {
+            return this.balances.containsKey(uniqueId);
+        }
+
+        @Override
+        public boolean createAccount(@NotNull final UUID uniqueId, @NotNull final String name) {
+            return this.balances.putIfAbsent(uniqueId, 0L) == null;
+        }
+
+        @Override
+        public @NotNull Map<UUID, AccountStorage> provideAccounts(@NotNull final Map<UUID, String> names) {
+            return getAccounts(names.keySet());
+        }
+
+        @Override
+        public boolean deleteAccount(@NotNull final UUID uniqueId) {
+            return this.balances.remove(uniqueId) != null;
+        }
+
+        @Override
+        public @NotNull Map<UUID, Boolean> depositBalances(@NotNull final Map<UUID, BigDecimal> amounts,
+                                                           final boolean negative) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull List<Transaction> getTransactions(@NotNull final UUID uniqueId, @Nullable final Transaction after,
+                                                          final int limit) {
+            return List.of();
+        }
+
+        @Override
+        public void setLeaderboard(@Nullable final Leaderboard leaderboard) { }
+
+        @Override
+        public void shutdown() { }
+    }
+
+    private static final class MemoryAccount implements AccountStorage {
+
+        private final MemoryStorage storage;
+        private final UUID uniqueId;
+
+        private MemoryAccount(@NotNull final MemoryStorage storage, @Nullable final UUID uniqueId) {
+            this.storage = storage;
+            this.uniqueId = uniqueId;
+        }
+
+        @Override
+        public @NotNull UUID getUniqueId() {
+            return this.uniqueId != null ? this.uniqueId : new UUID(0, 0);
+        }
+
+        @Override
+        public void setUniqueId(@NotNull final UUID uniqueId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return getUniqueId().toString().substring(0, 16);
+        }
+
+        @Override
+        public void setName(@NotNull final String name) { }
+
+        @Override
+        public @NotNull BigDecimal getBalance() {
+            return BigDecimal.valueOf(this.uniqueId != null ? this.storage.balances.get(this.uniqueId) : this.storage.global, 2);
+        }
+
+        @Override
+        public void setBalance(@NotNull final BigDecimal balance) throws StorageException {
+            final long cents = balance.movePointRight(2).longValueExact();
+            final long previous = this.storage.balances.get(this.uniqueId);
+
+            this.storage.check(cents);
+            this.storage.balances.put(this.uniqueId, cents);
+            this.storage.global += previous - cents;
+        }
+
+        @Override
+        public void depositBalance(@NotNull final BigDecimal amount, final boolean negative) throws StorageException {
+            final long cents = amount.movePointRight(2).longValueExact();
+
+            this.storage.check(cents);
+            this.storage.balances.merge(this.uniqueId, cents, Long::sum);
+            this.storage.global -= cents;
+        }
+
+        @Override
+        public void withdrawBalance(@NotNull final BigDecimal amount, final boolean negative) throws StorageException {
+            final long cents = amount.movePointRight(2).longValueExact();
+
+            this.storage.check(cents);
+            this.storage.balances.merge(this.uniqueId, -cents, Long::sum);
+            this.storage.global += cents;
+        }
+
+        @Override
+        public void depositBalances(@NotNull final List<BigDecimal> amounts, final boolean negative) throws StorageException {
+            for (final BigDecimal amount : amounts) {
+                depositBalance(amount, negative);
+            }
+        }
+
+        @Override
+        public void withdrawBalances(@NotNull final List<BigDecimal> amounts, final boolean negative) throws StorageException {
+            for (final BigDecimal amount : amounts) {
+                withdrawBalance(amount, negative);
+            }
+        }
+
+        @Override
+        public void transferBalance(@NotNull final AccountStorage account, @NotNull final BigDecimal amount,
+                                    final boolean negative) throws StorageException {
+            final long cents = amount.movePointRight(2).longValueExact();
+
+            this.storage.check(cents);
+            this.storage.balances.merge(this.uniqueId, -cents, Long::sum);
+            this.storage.balances.merge(((MemoryAccount) account).uniqueId, cents, Long::sum);
+        }
+    }
+}